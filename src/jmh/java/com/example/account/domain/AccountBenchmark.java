@@ -0,0 +1,50 @@
+package com.example.account.domain;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.AccountStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account 잔액 변경 (엔티티 메소드만, DB 없이)
+ * ./gradlew jmh -Pjmh.includes=AccountBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class AccountBenchmark {
+    private Account account;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        account = Account.builder()
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(Long.MAX_VALUE / 2)
+                .build();
+    }
+
+    @Benchmark
+    public Long useBalance() {
+        account.useBalance(10L);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public Long cancelBalance() {
+        account.cancelBalance(10L);
+        return account.getBalance();
+    }
+
+    // 잔액 부족 : AccountException 생성(stack trace) 비용이 포함된다.
+    @Benchmark
+    public Object useBalanceExceed() {
+        try {
+            account.useBalance(Long.MAX_VALUE);
+            return account.getBalance();
+        } catch (AccountException e) {
+            return e;
+        }
+    }
+}
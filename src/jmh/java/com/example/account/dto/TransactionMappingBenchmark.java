@@ -0,0 +1,57 @@
+package com.example.account.dto;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.type.AccountStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * 잔액 사용 응답을 만드는 변환 비용 (Transaction -> TransactionDto -> UseBalance.Response)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TransactionMappingBenchmark {
+    private Transaction transaction;
+    private TransactionDto transactionDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Account account = Account.builder()
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .build();
+        transaction = Transaction.builder()
+                .transactionType(USE)
+                .transactionResultType(S)
+                .account(account)
+                .amount(1000L)
+                .balanceSnapShot(9000L)
+                .transactionId("0123456789abcdef0123456789abcdef")
+                .transactedAt(LocalDateTime.now())
+                .build();
+        transactionDto = TransactionDto.fromEntity(transaction);
+    }
+
+    @Benchmark
+    public TransactionDto toDto() {
+        return TransactionDto.fromEntity(transaction);
+    }
+
+    @Benchmark
+    public UseBalance.Response toResponse() {
+        return UseBalance.Response.from(transactionDto);
+    }
+
+    @Benchmark
+    public UseBalance.Response chain() {
+        return UseBalance.Response.from(TransactionDto.fromEntity(transaction));
+    }
+}
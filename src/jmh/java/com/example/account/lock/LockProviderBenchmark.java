@@ -0,0 +1,86 @@
+package com.example.account.lock;
+
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * lock provider 별 lock/unlock 처리량 비교
+ * ./gradlew jmh -Pjmh.includes=LockProviderBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LockProviderBenchmark {
+    private static final int REDIS_PORT = 6390;
+
+    @Param({"local", "redisson"})
+    private String provider;
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private LockProvider lockProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("redisson".equals(provider)) {
+            redisServer = new RedisServer(REDIS_PORT);
+            redisServer.start();
+
+            Config config = new Config();
+            config.useSingleServer().setAddress("redis://127.0.0.1:" + REDIS_PORT);
+            redissonClient = Redisson.create(config);
+            lockProvider = new RedissonLockProvider(redissonClient);
+        } else {
+            lockProvider = new LocalLockProvider();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (redissonClient != null) {
+            redissonClient.shutdown();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        private static final AtomicInteger SEQ = new AtomicInteger();
+        String key;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            key = "ACLK:" + (1000000000 + SEQ.getAndIncrement());
+        }
+    }
+
+    // 스레드마다 다른 계좌 : 경쟁 없는 lock/unlock 비용
+    @Benchmark
+    @Threads(4)
+    public boolean uncontended(ThreadKey threadKey) throws InterruptedException {
+        boolean isLock = lockProvider.tryLock(threadKey.key, 1000L, 15000L, TimeUnit.MILLISECONDS);
+        if (isLock) {
+            lockProvider.unlock(threadKey.key);
+        }
+        return isLock;
+    }
+
+    // 모든 스레드가 같은 계좌 : 인기 가맹점 계좌 경쟁
+    @Benchmark
+    @Threads(4)
+    public boolean contended() throws InterruptedException {
+        boolean isLock = lockProvider.tryLock("ACLK:1000000000", 1000L, 15000L, TimeUnit.MILLISECONDS);
+        if (isLock) {
+            lockProvider.unlock("ACLK:1000000000");
+        }
+        return isLock;
+    }
+}
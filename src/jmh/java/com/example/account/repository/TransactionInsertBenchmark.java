@@ -0,0 +1,96 @@
+package com.example.account.repository;
+
+import com.example.account.AccountApplication;
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.id.TransactionIdGenerator;
+import com.example.account.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * Transaction insert 처리량 (초당 row 수)
+ * batchSize=1 은 JDBC batch 를 끈 것과 같다.
+ * idGenerator : 거래 번호 unique index(uk_transaction_transaction_id) 에
+ *              random(UUID) 은 여기저기에, time-ordered 는 끝에 insert 된다.
+ * idOptimizer : none 은 row 마다 sequence 를 조회하는 이전 방식(@GeneratedValue 기본값),
+ *              pooled-lo 는 50개 단위로 받아 메모리에서 할당한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TransactionInsertBenchmark {
+    private static final int ROWS_PER_TRANSACTION = 100;
+
+    @Param({"1", "50"})
+    private String batchSize;
+
+    @Param({"random", "time-ordered"})
+    private String idGenerator;
+
+    @Param({"none", "pooled-lo"})
+    private String idOptimizer;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private TransactionIdGenerator transactionIdGenerator;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.profiles.active=single",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--account.transaction-id.generator=" + idGenerator,
+                "--spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=" + idOptimizer,
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=warn");
+
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        transactionIdGenerator = context.getBean(TransactionIdGenerator.class);
+        String accountNumber = context.getBean(AccountService.class)
+                .createAccount(1L, 1_000_000L).getAccountNumber();
+        account = context.getBean(AccountRepository.class)
+                .findByAccountNumber(accountNumber).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public Object insertTransactions() {
+        return transactionTemplate.execute(status -> {
+            List<Transaction> transactions = new ArrayList<>(ROWS_PER_TRANSACTION);
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                transactions.add(Transaction.builder()
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .account(account)
+                        .amount(10L)
+                        .balanceSnapShot(account.getBalance())
+                        .transactionId(transactionIdGenerator.next())
+                        .transactedAt(LocalDateTime.now())
+                        .build());
+            }
+            return transactionRepository.saveAll(transactions);
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.account.service;
+
+import com.example.account.AccountApplication;
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConcurrencyProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 계좌에 몰리는 잔액 사용을 동시성 모드별로 비교
+ * distributed-lock : local 대기열 + Redisson lock (embedded Redis)
+ * pessimistic      : SELECT ... FOR UPDATE (H2)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ConcurrencyModeBenchmark {
+    @Param({"distributed-lock", "pessimistic"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private LocalLockService localLockService;
+    private LockService lockService;
+    private LockPolicy lockPolicy;
+    private boolean pessimistic;
+    private String accountNumber;
+
+    @AccountLock
+    private static void defaultPolicy() {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--account.concurrency.mode=" + mode,
+                "--spring.redis.port=6391",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=warn");
+
+        transactionService = context.getBean(TransactionService.class);
+        localLockService = context.getBean(LocalLockService.class);
+        lockService = context.getBean(LockService.class);
+        pessimistic = context.getBean(ConcurrencyProperties.class).isPessimistic();
+        lockPolicy = LockPolicy.from(ConcurrencyModeBenchmark.class
+                .getDeclaredMethod("defaultPolicy").getAnnotation(AccountLock.class));
+
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(1L, 1_000_000_000_000L).getAccountNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object contendedUseBalance() {
+        if (pessimistic) {
+            return transactionService.useBalance(1L, accountNumber, 10L);
+        }
+
+        // LockAopAspect 와 같은 순서로 lock 을 잡는다.
+        localLockService.lock(accountNumber, lockPolicy);
+        try {
+            lockService.lock(accountNumber, lockPolicy, lockPolicy.getWaitTime());
+            try {
+                return transactionService.useBalance(1L, accountNumber, 10L);
+            } finally {
+                lockService.unlock(accountNumber);
+            }
+        } finally {
+            localLockService.unlock(accountNumber);
+        }
+    }
+}
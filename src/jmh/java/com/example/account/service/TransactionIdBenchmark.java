@@ -0,0 +1,41 @@
+package com.example.account.service;
+
+import com.example.account.id.RandomTransactionIdGenerator;
+import com.example.account.id.TimeOrderedTransactionIdGenerator;
+import com.example.account.id.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 거래 번호 생성 비용 (TransactionIdGenerator 구현체별)
+ * UUID.randomUUID 는 SecureRandom 을 쓰므로 여러 스레드에서 함께 측정한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TransactionIdBenchmark {
+    private final TransactionIdGenerator randomGenerator = new RandomTransactionIdGenerator();
+    private final TransactionIdGenerator timeOrderedGenerator = new TimeOrderedTransactionIdGenerator(0);
+
+    // 이전 방식 (UUID 에서 '-' 제거)
+    @Benchmark
+    @Threads(4)
+    public String random() {
+        return randomGenerator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrdered() {
+        return timeOrderedGenerator.next();
+    }
+
+    // replace 를 뺀 난수 생성 + 문자열 변환 비용
+    @Benchmark
+    @Threads(4)
+    public String uuid() {
+        return UUID.randomUUID().toString();
+    }
+}
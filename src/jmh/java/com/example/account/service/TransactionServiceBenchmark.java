@@ -0,0 +1,86 @@
+package com.example.account.service;
+
+import com.example.account.AccountApplication;
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 스레드마다 다른 계좌로 측정하는 잔액 사용 경로 (경쟁 없음)
+ * lockUnlock : LockService lock/unlock (embedded Redis)
+ * useBalance : TransactionService.useBalance 부터 응답 변환까지 (H2, lock 제외)
+ * ./gradlew jmh -Pjmh.includes=TransactionServiceBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private LockService lockService;
+    private AccountService accountService;
+    private LockPolicy lockPolicy;
+
+    @AccountLock
+    private static void defaultPolicy() {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.redis.port=6392",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=warn");
+
+        transactionService = context.getBean(TransactionService.class);
+        lockService = context.getBean(LockService.class);
+        accountService = context.getBean(AccountService.class);
+        lockPolicy = LockPolicy.from(TransactionServiceBenchmark.class
+                .getDeclaredMethod("defaultPolicy").getAnnotation(AccountLock.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+        private static final AtomicInteger SEQ = new AtomicInteger();
+        Long userId;
+        String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(TransactionServiceBenchmark benchmark) {
+            // data.sql 의 사용자 1 ~ 3 에 나누어 만든다. (사용자당 계좌 10개 제한)
+            userId = (long) (SEQ.getAndIncrement() % 3 + 1);
+            accountNumber = benchmark.accountService
+                    .createAccount(userId, 1_000_000_000_000L).getAccountNumber();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void lockUnlock(ThreadAccount threadAccount) {
+        lockService.lock(threadAccount.accountNumber, lockPolicy, lockPolicy.getWaitTime());
+        lockService.unlock(threadAccount.accountNumber);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public UseBalance.Response useBalance(ThreadAccount threadAccount) {
+        TransactionDto transactionDto = transactionService.useBalance(
+                threadAccount.userId, threadAccount.accountNumber, 10L);
+        return UseBalance.Response.from(transactionDto);
+    }
+}
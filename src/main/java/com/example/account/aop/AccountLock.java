@@ -1,5 +1,7 @@
 package com.example.account.aop;
 
+import com.example.account.type.LockStrategy;
+
 import java.lang.annotation.*;
 
 @Target(ElementType.METHOD)
@@ -7,6 +9,14 @@ import java.lang.annotation.*;
 @Documented
 @Inherited
 public @interface AccountLock {
+    // lock 을 얻기 위해 기다리는 최대 시간 (local 대기열 + Redis 대기 합산)
     long tryLockTime() default 5000L;
 
+    // lock 을 잡고 있을 수 있는 최대 시간, watchdog 사용 시 무시
+    long leaseTime() default 15000L;
+
+    LockStrategy strategy() default LockStrategy.QUEUE;
+
+    // true 이면 lease 시간 대신 Redisson watchdog 이 작업이 끝날 때까지 lock 을 연장
+    boolean watchdog() default false;
 }
@@ -0,0 +1,14 @@
+package com.example.account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * Idempotency-Key 헤더가 있는 요청은 처음 한 번만 처리하고,
+ * 같은 key 로 다시 들어온 요청에는 처음 응답을 그대로 돌려준다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Idempotent {
+}
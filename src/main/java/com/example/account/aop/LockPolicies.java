@@ -0,0 +1,25 @@
+package com.example.account.aop;
+
+import com.example.account.type.LockStrategy;
+
+/**
+ * 거래 API 별 lock 정책
+ * 단건 API 의 @AccountLock 과 대량/비동기 처리가 같은 정책을 쓰도록 한 곳에 둔다.
+ * annotation 에는 enum 상수 필드를 쓸 수 없으므로 strategy 는 @AccountLock 에 직접 적는다.
+ */
+public final class LockPolicies {
+    public static final long LEASE_TIME = 15000L;
+
+    // 잔액 사용
+    public static final long USE_TRY_LOCK_TIME = 5000L;
+    public static final LockPolicy USE = new LockPolicy(
+            USE_TRY_LOCK_TIME, LEASE_TIME, LockStrategy.QUEUE, false);
+
+    // 잔액 사용 취소, 실패하면 다시 요청해야 하므로 더 오래 기다린다.
+    public static final long CANCEL_TRY_LOCK_TIME = 10000L;
+    public static final LockPolicy CANCEL = new LockPolicy(
+            CANCEL_TRY_LOCK_TIME, LEASE_TIME, LockStrategy.SPIN_THEN_PARK, false);
+
+    private LockPolicies() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.account.aop;
+
+import com.example.account.type.LockStrategy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@AllArgsConstructor
+public class LockPolicy {
+    private final long waitTime;
+    private final long leaseTime;
+    private final LockStrategy strategy;
+    private final boolean watchdog;
+
+    public static LockPolicy from(AccountLock accountLock) {
+        long waitTime = accountLock.strategy() == LockStrategy.FAIL_FAST
+                ? 0L : accountLock.tryLockTime();
+
+        return new LockPolicy(waitTime, accountLock.leaseTime(),
+                accountLock.strategy(), accountLock.watchdog());
+    }
+
+    /**
+     * startedAt(System.nanoTime) 이후 남은 대기 시간(ms)
+     */
+    public long remainingWaitTime(long startedAt) {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        return Math.max(0L, waitTime - elapsed);
+    }
+}
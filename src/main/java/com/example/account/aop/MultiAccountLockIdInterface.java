@@ -0,0 +1,8 @@
+package com.example.account.aop;
+
+import java.util.List;
+
+// 여러 계좌를 한 번에 잠가야 하는 요청 (계좌 이체 등)
+public interface MultiAccountLockIdInterface {
+    List<String> getAccountNumbers();
+}
@@ -0,0 +1,139 @@
+package com.example.account.cache;
+
+import com.example.account.dto.TransactionDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.TypedJsonJacksonCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 거래 조회용 캐시 (transactionId -> TransactionDto)
+ * 거래 내역은 저장 후 바뀌지 않으므로 만료 대신 크기 기준으로 오래된 것부터 밀어낸다.
+ * 1차 : 서버 내부 캐시(Caffeine), 2차 : 서버 간 공유 Redis (선택)
+ */
+@Slf4j
+@Component
+public class TransactionCache {
+    private static final String KEY_PREFIX = "TRX:";
+
+    private final Cache<String, TransactionDto> localCache;
+    private final RedissonClient redissonClient;
+    private final TypedJsonJacksonCodec codec;
+    private final long redisTtlSeconds;
+
+    private final Counter redisHitCounter;
+    private final Counter redisMissCounter;
+
+    public TransactionCache(
+            ObjectProvider<RedissonClient> redissonClient,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${account.transaction-cache.max-size:100000}") long maxSize,
+            @Value("${account.transaction-cache.redis.enabled:true}") boolean redisEnabled,
+            @Value("${account.transaction-cache.redis.ttl-seconds:3600}") long redisTtlSeconds
+    ) {
+        this.redissonClient = redisEnabled ? redissonClient.getIfAvailable() : null;
+        this.codec = new TypedJsonJacksonCodec(TransactionDto.class, objectMapper.copy());
+        this.redisTtlSeconds = redisTtlSeconds;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        // hit / miss / eviction 등은 cache.gets, cache.evictions 로 노출
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "transaction");
+        this.redisHitCounter = Counter.builder("account.transaction-cache.redis")
+                .tag("result", "hit")
+                .description("Redis 2차 캐시 조회 결과")
+                .register(meterRegistry);
+        this.redisMissCounter = Counter.builder("account.transaction-cache.redis")
+                .tag("result", "miss")
+                .description("Redis 2차 캐시 조회 결과")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시에 없으면 Redis, DB(loader) 순서로 읽어서 채운다.
+     * 같은 거래를 동시에 조회해도 DB 는 한 번만 읽는다.
+     */
+    public TransactionDto get(String transactionId, Function<String, TransactionDto> loader) {
+        return localCache.get(transactionId, id -> {
+            TransactionDto transactionDto = getRemote(id);
+            if (transactionDto == null) {
+                transactionDto = loader.apply(id);
+                putRemote(transactionDto);
+            }
+            return transactionDto;
+        });
+    }
+
+    /**
+     * 저장한 거래를 캐시에 넣는다. 트랜잭션 안이면 commit 된 뒤에 넣는다.
+     */
+    public void put(TransactionDto transactionDto) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            putNow(transactionDto);
+                        }
+                    });
+        } else {
+            putNow(transactionDto);
+        }
+    }
+
+    private void putNow(TransactionDto transactionDto) {
+        localCache.put(transactionDto.getTransactionId(), transactionDto);
+        putRemote(transactionDto);
+    }
+
+    private TransactionDto getRemote(String transactionId) {
+        if (redissonClient == null) {
+            return null;
+        }
+        try {
+            TransactionDto transactionDto = bucket(transactionId).get();
+            if (transactionDto == null) {
+                redisMissCounter.increment();
+            } else {
+                redisHitCounter.increment();
+            }
+            return transactionDto;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read transaction cache from Redis", e);
+            return null;
+        }
+    }
+
+    private void putRemote(TransactionDto transactionDto) {
+        if (redissonClient == null) {
+            return;
+        }
+        try {
+            bucket(transactionDto.getTransactionId())
+                    .set(transactionDto, redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write transaction cache to Redis", e);
+        }
+    }
+
+    private RBucket<TransactionDto> bucket(String transactionId) {
+        return redissonClient.getBucket(KEY_PREFIX + transactionId, codec);
+    }
+}
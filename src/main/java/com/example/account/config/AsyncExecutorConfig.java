@@ -0,0 +1,57 @@
+package com.example.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 비동기 거래 처리(account.async.enabled)에서 DB 작업을 실행하는 executor
+ * lock 대기는 Redisson 비동기 API 가 맡고, 이 executor 는 lock 을 잡은 뒤의 작업만 실행한다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "account.async.enabled", havingValue = "true")
+public class AsyncExecutorConfig {
+    @Value("${account.async.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    // DB 연결 수(Hikari maximum-pool-size) 이상으로 늘려도 DB 대기만 늘어난다.
+    @Value("${account.async.pool-size:10}")
+    private int poolSize;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transactionExecutor() {
+        if (virtualThreads) {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor != null) {
+                log.info("Transaction executor uses virtual threads");
+                return executor;
+            }
+            log.warn("Virtual threads are not available on this JDK, use a fixed thread pool");
+        }
+
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "transaction-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Java 21 부터 지원, Java 11 로 컴파일하므로 reflection 으로 찾는다.
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
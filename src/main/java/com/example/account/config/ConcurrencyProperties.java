@@ -0,0 +1,39 @@
+package com.example.account.config;
+
+import com.example.account.type.ConcurrencyMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "account.concurrency")
+public class ConcurrencyProperties {
+    private ConcurrencyMode mode = ConcurrencyMode.DISTRIBUTED_LOCK;
+
+    private final Optimistic optimistic = new Optimistic();
+
+    public boolean isPessimistic() {
+        return mode == ConcurrencyMode.PESSIMISTIC;
+    }
+
+    public boolean isOptimistic() {
+        return mode == ConcurrencyMode.OPTIMISTIC;
+    }
+
+    public boolean isInMemory() {
+        return mode == ConcurrencyMode.IN_MEMORY;
+    }
+
+    @Getter
+    @Setter
+    public static class Optimistic {
+        // 첫 시도를 포함한 최대 시도 횟수
+        private int maxAttempts = 5;
+        // 재시도 대기 시간, 시도할 때마다 두 배씩 늘리고 max 에서 멈춤 (±50% jitter)
+        private long backoffMillis = 5L;
+        private long maxBackoffMillis = 100L;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.account.config;
+
+import com.example.account.type.FaultPoint;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 장애 주입 설정 (fault-injection profile 에서만 켠다)
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "account.fault-injection")
+public class FaultInjectionProperties {
+    private boolean enabled = false;
+
+    private Map<FaultPoint, Fault> points = new EnumMap<>(FaultPoint.class);
+
+    @Getter
+    @Setter
+    public static class Fault {
+        // 해당 지점에서 매번 더할 지연 시간
+        private long latencyMs = 0L;
+        // 해당 지점에서 오류를 낼 확률 (0.0 ~ 1.0)
+        private double errorRate = 0.0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.account.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import redis.embedded.RedisServer;
 
@@ -8,6 +9,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 @Configuration
+@ConditionalOnProperty(name = "account.redis.enabled", havingValue = "true", matchIfMissing = true)
 public class LocalRedisConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
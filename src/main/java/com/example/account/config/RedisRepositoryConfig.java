@@ -5,10 +5,12 @@ import org.redisson.api.RedissonClient;
 import org.redisson.client.RedisClient;
 import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@ConditionalOnProperty(name = "account.redis.enabled", havingValue = "true", matchIfMissing = true)
 public class RedisRepositoryConfig {
     @Value("${spring.redis.host}")
     private String redisHost;
@@ -16,10 +18,18 @@ public class RedisRepositoryConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
+    // Redis 가 느려져도 요청 스레드가 오래 묶이지 않도록 짧게 끊는다.
+    @Value("${account.redis.timeout-ms:1000}")
+    private int redisTimeout;
+
     @Bean
     public RedissonClient redissonClient() {
         Config config = new Config();
-        config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
+        config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort)
+                .setConnectTimeout(redisTimeout)
+                .setTimeout(redisTimeout)
+                .setRetryAttempts(1)
+                .setRetryInterval(100);
 
         return Redisson.create(config);
     }
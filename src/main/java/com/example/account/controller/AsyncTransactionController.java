@@ -0,0 +1,82 @@
+package com.example.account.controller;
+
+import com.example.account.aop.Idempotent;
+import com.example.account.aop.LockPolicies;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.engine.BalanceEngine;
+import com.example.account.exception.AccountException;
+import com.example.account.failure.FailedTransactionQueue;
+import com.example.account.service.AsyncAccountLockTemplate;
+import com.example.account.service.TransactionService;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 잔액 사용 / 취소 비동기 컨트롤러 (account.async.enabled)
+ * 요청 스레드는 lock 을 기다리지 않고 바로 돌려주고, 응답은 작업이 끝나면 보낸다.
+ * lock 정책은 단건 API 와 같은 LockPolicies 를 쓴다.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.async.enabled", havingValue = "true")
+public class AsyncTransactionController {
+    private final TransactionService transactionService;
+    private final AsyncAccountLockTemplate asyncAccountLockTemplate;
+    private final FailedTransactionQueue failedTransactionQueue;
+    private final BalanceEngine balanceEngine;
+
+    @PostMapping("/transaction/async/use")
+    @Idempotent
+    public CompletableFuture<UseBalance.Response> useBalance(
+            @Valid @RequestBody UseBalance.Request request
+    ) {
+        return asyncAccountLockTemplate.execute(request.getAccountNumber(), LockPolicies.USE,
+                        () -> UseBalance.Response.from(balanceEngine.isEnabled()
+                                ? balanceEngine.useBalance(request.getUserId(),
+                                request.getAccountNumber(), request.getAmount())
+                                : transactionService.useBalance(request.getUserId(),
+                                request.getAccountNumber(), request.getAmount())))
+                .whenComplete((response, e) -> {
+                    if (unwrap(e) instanceof AccountException) {
+                        log.error("Failed to use balance.");
+                        failedTransactionQueue.enqueue(TransactionType.USE,
+                                request.getAccountNumber(), request.getAmount());
+                    }
+                });
+    }
+
+    @PostMapping("/transaction/async/cancel")
+    @Idempotent
+    public CompletableFuture<CancelBalance.Response> cancelBalance(
+            @Valid @RequestBody CancelBalance.Request request
+    ) {
+        return asyncAccountLockTemplate.execute(request.getAccountNumber(), LockPolicies.CANCEL,
+                        () -> CancelBalance.Response.from(balanceEngine.isEnabled()
+                                ? balanceEngine.cancelBalance(request.getTransactionId(),
+                                request.getAccountNumber(), request.getAmount())
+                                : transactionService.cancelBalance(request.getTransactionId(),
+                                request.getAccountNumber(), request.getAmount())))
+                .whenComplete((response, e) -> {
+                    if (unwrap(e) instanceof AccountException) {
+                        log.error("Failed to cancel balance.");
+                        failedTransactionQueue.enqueue(TransactionType.CANCEL,
+                                request.getAccountNumber(), request.getAmount());
+                    }
+                });
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
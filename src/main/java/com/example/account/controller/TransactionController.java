@@ -2,17 +2,37 @@ package com.example.account.controller;
 
 
 import com.example.account.aop.AccountLock;
+import com.example.account.aop.Idempotent;
+import com.example.account.aop.LockPolicies;
+import com.example.account.dto.BulkUseBalance;
 import com.example.account.dto.CancelBalance;
 import com.example.account.dto.QueryTransactionResponse;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.Transfer;
 import com.example.account.dto.UseBalance;
+import com.example.account.engine.BalanceEngine;
 import com.example.account.exception.AccountException;
+import com.example.account.failure.FailedTransactionQueue;
+import com.example.account.service.BulkTransactionService;
+import com.example.account.service.TransactionExportService;
 import com.example.account.service.TransactionService;
+import com.example.account.type.ExportFormat;
+import com.example.account.type.LockStrategy;
+import com.example.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 
 /**
@@ -20,6 +40,10 @@ import javax.validation.Valid;
  * 1. 잔액 사용
  * 2. 잔액 사용 취소
  * 3. 거래 확인
+ * 4. 계좌 이체
+ * 5. 잔액 사용 일괄 처리
+ * 6. 계좌 거래 내역
+ * 7. 기간별 거래 내보내기
  */
 
 @Slf4j
@@ -27,23 +51,31 @@ import javax.validation.Valid;
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final BulkTransactionService bulkTransactionService;
+    private final FailedTransactionQueue failedTransactionQueue;
+    private final TransactionExportService transactionExportService;
+    private final BalanceEngine balanceEngine;
 
     @PostMapping("/transaction/use")
-    @AccountLock
+    @Idempotent
+    @AccountLock(tryLockTime = LockPolicies.USE_TRY_LOCK_TIME,
+            leaseTime = LockPolicies.LEASE_TIME)
     public UseBalance.Response useBalance(
             @Valid @RequestBody UseBalance.Request request
-    ) throws InterruptedException {
+    ) {
         try {
-            Thread.sleep(3000L);
-            return UseBalance.Response.from(
-                    transactionService.useBalance(request.getUserId(),
+            // IN_MEMORY 모드는 DB 트랜잭션 없이 BalanceEngine 에서 처리
+            return UseBalance.Response.from(balanceEngine.isEnabled()
+                    ? balanceEngine.useBalance(request.getUserId(),
+                    request.getAccountNumber(), request.getAmount())
+                    : transactionService.useBalance(request.getUserId(),
                     request.getAccountNumber(), request.getAmount()));
 
         } catch (AccountException e) {
             log.error("Failed to use balance.");
 
-            // 실패시 저장
-            transactionService.saveFailedUseTransaction(
+            // 실패 거래는 대기열에 넣고 백그라운드에서 저장
+            failedTransactionQueue.enqueue(TransactionType.USE,
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -52,21 +84,38 @@ public class TransactionController {
         }
     }
 
+    /**
+     * 여러 건의 잔액 사용을 한 번에 처리
+     * 항목별로 성공(S)/실패(F)를 요청 순서대로 돌려준다.
+     */
+    @PostMapping("/transaction/use/bulk")
+    public List<BulkUseBalance.Response> useBalanceBulk(
+            @Valid @RequestBody BulkUseBalance.Request request
+    ) {
+        return bulkTransactionService.useBalances(request.getItems()).stream()
+                .map(BulkUseBalance.Response::from)
+                .collect(Collectors.toList());
+    }
+
     @PostMapping("/transaction/cancel")
-    @AccountLock
+    @Idempotent
+    @AccountLock(tryLockTime = LockPolicies.CANCEL_TRY_LOCK_TIME,
+            leaseTime = LockPolicies.LEASE_TIME, strategy = LockStrategy.SPIN_THEN_PARK)
     public CancelBalance.Response cancelBalance(
             @Valid @RequestBody CancelBalance.Request request
-    ) throws InterruptedException {
+    ) {
         try {
-            return CancelBalance.Response.from(
-                    transactionService.cancelBalance(request.getTransactionId(),
-                            request.getAccountNumber(), request.getAmount()));
+            return CancelBalance.Response.from(balanceEngine.isEnabled()
+                    ? balanceEngine.cancelBalance(request.getTransactionId(),
+                    request.getAccountNumber(), request.getAmount())
+                    : transactionService.cancelBalance(request.getTransactionId(),
+                    request.getAccountNumber(), request.getAmount()));
 
         } catch (AccountException e) {
             log.error("Failed to use balance.");
 
-            // 실패시 저장
-            transactionService.saveFailedCancelTransaction(
+            // 실패 거래는 대기열에 넣고 백그라운드에서 저장
+            failedTransactionQueue.enqueue(TransactionType.CANCEL,
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -75,10 +124,69 @@ public class TransactionController {
         }
     }
 
+    @PostMapping("/transaction/transfer")
+    @AccountLock
+    public Transfer.Response transfer(
+            @Valid @RequestBody Transfer.Request request
+    ) {
+        try {
+            return Transfer.Response.from(
+                    transactionService.transfer(request.getUserId(),
+                            request.getFromAccountNumber(),
+                            request.getToAccountNumber(),
+                            request.getAmount()),
+                    request.getToAccountNumber());
+
+        } catch (AccountException e) {
+            log.error("Failed to transfer balance.");
+
+            // 실패 거래는 출금 계좌로 대기열에 넣고 백그라운드에서 저장
+            failedTransactionQueue.enqueue(TransactionType.TRANSFER_OUT,
+                    request.getFromAccountNumber(),
+                    request.getAmount()
+            );
+
+            throw e;
+        }
+    }
+
     @GetMapping("/transaction/{transactionId}")
     public QueryTransactionResponse queryTransaction(
             @PathVariable String transactionId){
         return QueryTransactionResponse.from(transactionService.queryTransaction(transactionId));
     }
 
+    @GetMapping("/transaction/history")
+    public TransactionHistory.Response getTransactionHistory(
+            @RequestParam("account_number") String accountNumber,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        return TransactionHistory.Response.from(accountNumber,
+                transactionService.getTransactionHistory(accountNumber, cursor, size));
+    }
+
+    /**
+     * 기간 [from, to) 의 모든 거래를 NDJSON 또는 CSV 로 내려받기
+     * 결과를 모으지 않고 DB 에서 읽는 대로 응답에 쓴다.
+     */
+    @GetMapping("/transaction/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format
+    ) {
+        // 응답을 쓰기 시작한 뒤에는 오류 응답을 줄 수 없으므로 먼저 검증
+        transactionExportService.validateRange(from, to);
+
+        StreamingResponseBody body = outputStream ->
+                transactionExportService.export(from, to, format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions."
+                        + format.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
 }
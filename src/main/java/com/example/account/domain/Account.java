@@ -21,6 +21,7 @@ public class Account extends BaseEntity {
 
     @ManyToOne
     private AccountUser accountUser;
+    @Column(unique = true)
     private String accountNumber;
 
     @Enumerated(EnumType.STRING)
@@ -30,6 +31,10 @@ public class Account extends BaseEntity {
     private LocalDateTime registeredAt;
     private LocalDateTime unRegisteredAt;
 
+    // OPTIMISTIC 모드에서 동시 수정 감지용
+    @Version
+    private Long version;
+
     public void useBalance(Long amount) {
         if (amount > balance) {
             throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
@@ -44,5 +49,12 @@ public class Account extends BaseEntity {
         balance += amount;
     }
 
+    public void depositBalance(Long amount) {
+        if (amount < 0) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+        balance += amount;
+    }
+
 
 }
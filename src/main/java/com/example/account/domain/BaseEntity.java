@@ -1,12 +1,15 @@
 package com.example.account.domain;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
@@ -19,8 +22,17 @@ import java.time.LocalDateTime;
 @MappedSuperclass
 @EntityListeners(AuditingEntityListener.class)
 public class BaseEntity {
+    // 엔티티별 sequence (account_seq, transaction_seq ...) 를 50개 단위로 받아 메모리에서 할당
+    // 할당 방식(optimizer)은 hibernate.id.optimizer.pooled.preferred 로 정한다. (application.yml)
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pooled_sequence")
+    @GenericGenerator(
+            name = "pooled_sequence",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "prefer_sequence_per_entity", value = "true"),
+                    @Parameter(name = "increment_size", value = "50")
+            })
     private long id;
 
     @CreatedDate
@@ -19,6 +19,17 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = {
+        // 계좌별 거래 내역 keyset 조회용
+        @Index(name = "idx_transaction_account_history",
+                columnList = "account_id, transacted_at, id"),
+        // 기간별 거래 export 용
+        @Index(name = "idx_transaction_transacted_at",
+                columnList = "transacted_at, id"),
+        // 거래 번호 조회(취소/조회/write-behind 중복 확인)용, 시간 순서 번호면 index 끝에 insert 된다.
+        @Index(name = "uk_transaction_transaction_id",
+                columnList = "transaction_id", unique = true)
+})
 public class Transaction extends BaseEntity{
 
 
@@ -0,0 +1,64 @@
+package com.example.account.dto;
+
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BulkUseBalance {
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        @Valid
+        @NotEmpty
+        @Size(max = 1000)
+        private List<UseBalance.Request> items;
+    }
+
+    /**
+     * 요청 항목 하나의 처리 결과 (실패한 경우 errorCode 가 채워진다)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private TransactionDto transaction;
+        private ErrorCode errorCode;
+
+        public static Result fail(TransactionDto transaction, ErrorCode errorCode) {
+            return new Result(transaction, errorCode);
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private TransactionResultType transactionResult;
+        private String transactionId;
+        private Long amount;
+        private LocalDateTime transactedAt;
+        private ErrorCode errorCode;
+
+        public static Response from(Result result) {
+            TransactionDto transactionDto = result.getTransaction();
+            return Response.builder()
+                    .accountNumber(transactionDto.getAccountNumber())
+                    .amount(transactionDto.getAmount())
+                    .transactedAt(transactionDto.getTransactedAt())
+                    .transactionResult(transactionDto.getTransactionResultType())
+                    .transactionId(transactionDto.getTransactionId())
+                    .errorCode(result.getErrorCode())
+                    .build();
+        }
+    }
+}
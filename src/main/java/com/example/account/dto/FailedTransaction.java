@@ -0,0 +1,19 @@
+package com.example.account.dto;
+
+import com.example.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 아직 DB 에 저장되지 않은 실패(F) 거래
+ */
+@Getter
+@AllArgsConstructor
+public class FailedTransaction {
+    private TransactionType transactionType;
+    private String accountNumber;
+    private Long amount;
+    private LocalDateTime transactedAt;
+}
@@ -0,0 +1,42 @@
+package com.example.account.dto;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 거래 내역 페이지 위치 (마지막으로 내려준 거래의 transactedAt, id)
+ * 클라이언트에는 내용을 알 수 없는 문자열로 내려준다.
+ */
+@Getter
+@AllArgsConstructor
+public class TransactionCursor {
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime transactedAt;
+    private long id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (transactedAt + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String decoded = new String(
+                    Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = decoded.lastIndexOf(SEPARATOR);
+
+            return new TransactionCursor(
+                    LocalDateTime.parse(decoded.substring(0, index)),
+                    Long.parseLong(decoded.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+}
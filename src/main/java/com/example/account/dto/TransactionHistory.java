@@ -0,0 +1,41 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 계좌 거래 내역 한 페이지 (최신순)
+ * nextCursor 가 없으면 마지막 페이지
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistory {
+    private List<TransactionDto> transactions;
+    private String nextCursor;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber;
+        private List<QueryTransactionResponse> transactions;
+        private String nextCursor;
+
+        public static Response from(String accountNumber, TransactionHistory history) {
+            return Response.builder()
+                    .accountNumber(accountNumber)
+                    .transactions(history.getTransactions().stream()
+                            .map(QueryTransactionResponse::from)
+                            .collect(Collectors.toList()))
+                    .nextCursor(history.getNextCursor())
+                    .build();
+        }
+    }
+}
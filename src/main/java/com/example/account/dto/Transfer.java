@@ -0,0 +1,63 @@
+package com.example.account.dto;
+
+import com.example.account.aop.MultiAccountLockIdInterface;
+import com.example.account.type.TransactionResultType;
+import lombok.*;
+
+import javax.validation.constraints.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class Transfer {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Request implements MultiAccountLockIdInterface {
+        @NotNull
+        @Min(1)
+        private Long userId;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String fromAccountNumber;
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String toAccountNumber;
+
+        @NotNull
+        @Min(10)
+        @Max(1000_000_000)
+        private Long amount;
+
+        @Override
+        public List<String> getAccountNumbers() {
+            return List.of(fromAccountNumber, toAccountNumber);
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String fromAccountNumber;
+        private String toAccountNumber;
+        private TransactionResultType transactionResult;
+        private String transactionId;
+        private Long amount;
+        private LocalDateTime transactedAt;
+
+        public static Response from(TransactionDto transactionDto, String toAccountNumber) {
+            return Response.builder()
+                    .fromAccountNumber(transactionDto.getAccountNumber())
+                    .toAccountNumber(toAccountNumber)
+                    .amount(transactionDto.getAmount())
+                    .transactedAt(transactionDto.getTransactedAt())
+                    .transactionResult(transactionDto.getTransactionResultType())
+                    .transactionId(transactionDto.getTransactionId())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.account.engine;
+
+import com.example.account.domain.Account;
+import com.example.account.type.AccountStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * BalanceEngine 이 메모리에 들고 있는 계좌
+ * 잔액 변경은 계좌가 속한 shard 스레드에서만 하고, 다른 스레드는 읽기만 한다.
+ */
+@Getter
+class AccountState {
+    private final Long id;
+    private final String accountNumber;
+    private final Long userId;
+    private final AccountStatus accountStatus;
+    private volatile long balance;
+    // 마지막 변경이 journal 에 기록되면 그 seq 로 완료된다.
+    @Setter
+    private CompletableFuture<Long> lastWrite;
+
+    AccountState(Long id, String accountNumber, Long userId,
+                 AccountStatus accountStatus, long balance) {
+        this.id = id;
+        this.accountNumber = accountNumber;
+        this.userId = userId;
+        this.accountStatus = accountStatus;
+        this.balance = balance;
+    }
+
+    static AccountState from(Account account) {
+        return new AccountState(account.getId(), account.getAccountNumber(),
+                account.getAccountUser().getId(), account.getAccountStatus(),
+                account.getBalance());
+    }
+
+    void useBalance(long amount) {
+        balance -= amount;
+    }
+
+    void cancelBalance(long amount) {
+        balance += amount;
+    }
+}
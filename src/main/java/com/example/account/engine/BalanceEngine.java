@@ -0,0 +1,652 @@
+package com.example.account.engine;
+
+import com.example.account.cache.TransactionCache;
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.dto.BulkUseBalance;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.id.TransactionIdGenerator;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * IN_MEMORY 모드의 잔액 사용 / 취소 처리
+ * 계좌 번호의 hash 로 정해진 shard(단일 스레드)에서만 계좌 잔액을 바꾸므로 lock 이 필요 없다.
+ * 잔액 변경은 journal 에 모아서 기록(group commit)한 뒤 응답하고,
+ * DB(Transaction, Account 잔액)에는 BalanceWriteBehind 가 batch 로 반영한다.
+ * 기동 시 journal 에 남은 기록을 먼저 DB 에 반영하고, 계좌는 처음 거래할 때 DB 에서 읽어 온다.
+ * 검증 규칙과 순서는 TransactionService 의 useBalance / cancelBalance 와 같다.
+ */
+@Slf4j
+@Component
+public class BalanceEngine implements SmartLifecycle {
+    private final ConcurrencyProperties concurrencyProperties;
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionCache transactionCache;
+    private final BalanceJournal journal;
+    private final BalanceWriteBehind writeBehind;
+    private final BalanceSnapshot snapshot;
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    private final int shardCount;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long checkpointIntervalMs;
+
+    // 계좌 상태는 해당 shard 스레드만 바꾸고, 조회는 어느 스레드에서나 한다.
+    private final Map<String, AccountState> accounts = new ConcurrentHashMap<>();
+    // 사용자는 삭제되지 않으므로 한 번 확인한 id 는 다시 조회하지 않는다.
+    private final Set<Long> knownUsers = ConcurrentHashMap.newKeySet();
+    // 해지 트랜잭션이 끝나지 않은 계좌, 끝날 때까지 거래를 받지 않는다.
+    private final Set<String> closing = ConcurrentHashMap.newKeySet();
+    // journal 에는 남았지만 아직 DB 에 저장되지 않은 거래 (취소 시 조회용)
+    private final Map<String, BalanceEntry> unpersisted = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<PendingWrite> journalQueue = new LinkedBlockingQueue<>();
+
+    private final Timer applyTimer;
+
+    private ExecutorService[] shards;
+    private Thread journalWriter;
+    private volatile long lastSeq;
+    private volatile boolean running;
+    private volatile boolean failed;
+    private long checkpointedSeq;
+    private long checkpointedAt;
+
+    public BalanceEngine(
+            ConcurrencyProperties concurrencyProperties,
+            AccountRepository accountRepository,
+            AccountUserRepository accountUserRepository,
+            TransactionRepository transactionRepository,
+            TransactionCache transactionCache,
+            BalanceJournal journal,
+            BalanceWriteBehind writeBehind,
+            BalanceSnapshot snapshot,
+            TransactionIdGenerator transactionIdGenerator,
+            @Value("${account.engine.shards:4}") int shardCount,
+            @Value("${account.engine.batch-size:500}") int batchSize,
+            @Value("${account.engine.flush-interval-ms:10}") long flushIntervalMs,
+            @Value("${account.engine.snapshot.checkpoint-interval-ms:5000}") long checkpointIntervalMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.concurrencyProperties = concurrencyProperties;
+        this.accountRepository = accountRepository;
+        this.accountUserRepository = accountUserRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionCache = transactionCache;
+        this.journal = journal;
+        this.writeBehind = writeBehind;
+        this.snapshot = snapshot;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.shardCount = shardCount;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+
+        this.applyTimer = Timer.builder("account.engine.apply")
+                .description("shard 에서 잔액 변경 한 건을 검증하고 반영한 시간 (journal 기록 제외)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("account.engine.write-behind.lag", this,
+                        engine -> engine.lastSeq - engine.writeBehind.getPersistedSeq())
+                .description("journal 에는 남았지만 DB 에 저장되지 않은 거래 수")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return concurrencyProperties.isInMemory();
+    }
+
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        // user 찾기
+        checkUser(userId);
+
+        return toDto(await(submit(accountNumber, () -> {
+            // account 찾기
+            AccountState account = getAccount(accountNumber);
+            // 거래 가능 여부 확인
+            validateUseBalance(userId, account, amount);
+
+            account.useBalance(amount);
+            return newEntry(USE, amount, account);
+        })));
+    }
+
+    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        TransactionDto transaction = findTransaction(transactionId);
+
+        return toDto(await(submit(accountNumber, () -> {
+            AccountState account = getAccount(accountNumber);
+
+            validateCancelBalance(transaction, account, amount);
+
+            account.cancelBalance(amount);
+            return newEntry(CANCEL, amount, account);
+        })));
+    }
+
+    /**
+     * 한 계좌에 대한 여러 건의 잔액 사용을 shard 에서 한 번에 처리
+     * 항목별 실패는 errorCode 만 채워서 돌려주고, 성공한 거래는 한 번에 journal 에 남긴다.
+     */
+    public List<BulkUseBalance.Result> useBalanceGroup(String accountNumber,
+                                                       List<UseBalance.Request> items) {
+        Map<Long, Boolean> users = new HashMap<>();
+        for (UseBalance.Request item : items) {
+            users.computeIfAbsent(item.getUserId(), this::userExists);
+        }
+
+        ExecutorService shard = shardOf(accountNumber);
+        GroupResult group = await(CompletableFuture.supplyAsync(() -> {
+            AccountState account = getAccount(accountNumber);
+
+            GroupResult result = new GroupResult(items.size());
+            for (UseBalance.Request item : items) {
+                try {
+                    if (!users.get(item.getUserId())) {
+                        throw new AccountException(ErrorCode.USER_NOT_FOUND);
+                    }
+                    validateUseBalance(item.getUserId(), account, item.getAmount());
+
+                    account.useBalance(item.getAmount());
+                    result.add(newEntry(USE, item.getAmount(), account), null);
+                } catch (AccountException e) {
+                    result.add(null, e.getErrorCode());
+                }
+            }
+            result.written = append(account, result.entries.stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+            return result;
+        }, checkRunning(shard)));
+        await(group.written);
+
+        List<BulkUseBalance.Result> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BalanceEntry entry = group.entries.get(i);
+            results.add(entry != null
+                    ? new BulkUseBalance.Result(toDto(entry), null)
+                    : BulkUseBalance.Result.fail(TransactionDto.builder()
+                    .accountNumber(accountNumber)
+                    .transactionType(USE)
+                    .transactionResultType(F)
+                    .amount(items.get(i).getAmount())
+                    .build(), group.errorCodes.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * 메모리에 있는 계좌 잔액 (DB 보다 최신), 아직 거래가 없던 계좌면 비어 있다.
+     */
+    public Optional<Long> getBalance(String accountNumber) {
+        return Optional.ofNullable(accounts.get(accountNumber)).map(AccountState::getBalance);
+    }
+
+    /**
+     * 계좌 해지 : 계좌의 변경이 모두 DB 에 저장될 때까지 기다린 뒤 메모리에서 빼고,
+     * 해지 트랜잭션이 끝날 때까지(commit / rollback) 이 계좌의 거래를 받지 않는다.
+     * 트랜잭션이 끝나면 다음 거래는 DB 의 계좌 상태를 다시 읽는다.
+     * 해지 트랜잭션 안에서 DB 의 계좌를 읽고 바꾸기 전에 호출한다.
+     */
+    public void closeAccount(String accountNumber) {
+        await(CompletableFuture.supplyAsync(() -> {
+            AccountState account = accounts.get(accountNumber);
+            if (account != null && account.getLastWrite() != null) {
+                try {
+                    // shard 를 막고 기다리므로 그 사이 같은 계좌의 거래는 반영되지 않는다.
+                    long seq = account.getLastWrite().join();
+                    if (!writeBehind.awaitPersisted(seq)) {
+                        log.error("Balance of accountNumber {} is not persisted, reject close",
+                                accountNumber);
+                        throw new AccountException(ErrorCode.BALANCE_ENGINE_UNAVAILABLE);
+                    }
+                } catch (CompletionException e) {
+                    log.warn("Close accountNumber {} after failed write", accountNumber);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AccountException(ErrorCode.BALANCE_ENGINE_UNAVAILABLE);
+                }
+            }
+            closing.add(accountNumber);
+            accounts.remove(accountNumber);
+            snapshot.remove(accountNumber);
+            return null;
+        }, checkRunning(shardOf(accountNumber))));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            closing.remove(accountNumber);
+                        }
+                    });
+        } else {
+            closing.remove(accountNumber);
+        }
+    }
+
+    private CompletableFuture<BalanceEntry> submit(String accountNumber,
+                                                   Supplier<BalanceEntry> mutation) {
+        ExecutorService shard = shardOf(accountNumber);
+        return CompletableFuture.supplyAsync(() -> {
+            long startedAt = System.nanoTime();
+            BalanceEntry entry = mutation.get();
+            applyTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            // 반영한 순서대로 journal 에 남도록 shard 스레드에서 바로 넘긴다.
+            return append(accounts.get(accountNumber), List.of(entry)).thenApply(seq -> entry);
+        }, checkRunning(shard)).thenCompose(Function.identity());
+    }
+
+    /**
+     * shard 스레드에서 호출, journal 에 기록되면 마지막 seq 로 완료된다.
+     */
+    private CompletableFuture<Long> append(AccountState account, List<BalanceEntry> entries) {
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        PendingWrite write = new PendingWrite(entries);
+        if (failed) {
+            write.future.completeExceptionally(
+                    new AccountException(ErrorCode.BALANCE_ENGINE_UNAVAILABLE));
+        } else {
+            journalQueue.add(write);
+        }
+        if (account != null) {
+            account.setLastWrite(write.future);
+        }
+        return write.future;
+    }
+
+    private ExecutorService checkRunning(ExecutorService shard) {
+        if (!running || failed) {
+            throw new AccountException(ErrorCode.BALANCE_ENGINE_UNAVAILABLE);
+        }
+        return shard;
+    }
+
+    private ExecutorService shardOf(String accountNumber) {
+        ExecutorService[] current = shards;
+        if (current == null) {
+            throw new AccountException(ErrorCode.BALANCE_ENGINE_UNAVAILABLE);
+        }
+        return current[Math.floorMod(accountNumber.hashCode(), current.length)];
+    }
+
+    private void checkUser(Long userId) {
+        if (!userExists(userId)) {
+            throw new AccountException(ErrorCode.USER_NOT_FOUND);
+        }
+    }
+
+    private boolean userExists(Long userId) {
+        if (knownUsers.contains(userId)) {
+            return true;
+        }
+        if (accountUserRepository.existsById(userId)) {
+            knownUsers.add(userId);
+            return true;
+        }
+        return false;
+    }
+
+    private AccountState getAccount(String accountNumber) {
+        // 해지 중인 계좌는 DB 에서 해지 전 상태를 다시 읽지 않도록 거절
+        if (closing.contains(accountNumber)) {
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        AccountState account = accounts.get(accountNumber);
+        if (account != null) {
+            return account;
+        }
+        // 처음 거래하는 계좌만 snapshot 이나 DB 에서 읽는다. (shard 스레드이므로 같은 계좌를 두 번 읽지 않는다)
+        account = snapshot.get(accountNumber)
+                .or(() -> accountRepository.findByAccountNumber(accountNumber)
+                        .map(AccountState::from))
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        accounts.put(accountNumber, account);
+        return account;
+    }
+
+    private TransactionDto findTransaction(String transactionId) {
+        BalanceEntry entry = unpersisted.get(transactionId);
+        if (entry != null) {
+            return toDto(entry);
+        }
+        return transactionCache.get(transactionId, id -> TransactionDto.fromEntity(
+                transactionRepository.findByTransactionId(id)
+                        .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND))));
+    }
+
+    private static void validateUseBalance(Long userId, AccountState account, Long amount) {
+        // 사용자와 계좌 아이디가 다른 경우
+        if (!Objects.equals(account.getUserId(), userId)) {
+            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+        // 계좌가 이미 해지 상태인 경우
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+        // 거래 금액이 잔액보다 큰 경우
+        if (amount > account.getBalance()) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+    }
+
+    private static void validateCancelBalance(TransactionDto transaction, AccountState account,
+                                              Long amount) {
+        // 해당 계좌에서 발생한 거래가 아닌 경우
+        if (!Objects.equals(transaction.getAccountNumber(), account.getAccountNumber())) {
+            throw new AccountException(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+        }
+        // 거래 금액과 거래 취소 금액이 다른 경우
+        if (!Objects.equals(transaction.getAmount(), amount)) {
+            throw new AccountException(ErrorCode.CANCEL_MUST_FULLY);
+        }
+        // 거래 후 1년이 지난 경우
+        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
+            throw new AccountException(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+        // 취소 금액은 음수일 수 없다. (Account.cancelBalance 와 같은 규칙)
+        if (amount < 0) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    private BalanceEntry newEntry(TransactionType transactionType, long amount,
+                                  AccountState account) {
+        return new BalanceEntry(0L,
+                transactionIdGenerator.next(),
+                account.getId(),
+                account.getAccountNumber(),
+                transactionType,
+                amount,
+                account.getBalance(),
+                LocalDateTime.now());
+    }
+
+    private static TransactionDto toDto(BalanceEntry entry) {
+        return TransactionDto.builder()
+                .accountNumber(entry.getAccountNumber())
+                .transactionType(entry.getTransactionType())
+                .transactionResultType(S)
+                .amount(entry.getAmount())
+                .balanceSnapShot(entry.getBalanceSnapShot())
+                .transactionId(entry.getTransactionId())
+                .transactedAt(entry.getTransactedAt())
+                .build();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // ---- journal group commit ----
+
+    private void runJournal() {
+        List<PendingWrite> group = new ArrayList<>();
+        Deque<BalanceEntry> written = new ArrayDeque<>();
+        while (running || !journalQueue.isEmpty()) {
+            try {
+                releasePersisted(written);
+                checkpointIfDue();
+                PendingWrite first = journalQueue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    releaseSegments();
+                    continue;
+                }
+                group.add(first);
+                journalQueue.drainTo(group, batchSize - 1);
+                writeGroup(group, written);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingWrite> group, Deque<BalanceEntry> written) {
+        List<BalanceEntry> entries = new ArrayList<>();
+        long seq = lastSeq;
+        for (PendingWrite write : group) {
+            for (BalanceEntry entry : write.entries) {
+                entry.setSeq(++seq);
+                entries.add(entry);
+            }
+        }
+
+        if (!failed) {
+            try {
+                journal.append(entries);
+            } catch (RuntimeException e) {
+                // 메모리 잔액에는 이미 반영되었으므로 더 이상 거래를 받지 않는다.
+                // 재기동하면 journal 에 남은 거래까지만 DB 에 반영된다.
+                log.error("Failed to write balance journal, stop balance engine", e);
+                failed = true;
+            }
+        }
+        if (failed) {
+            for (PendingWrite write : group) {
+                write.future.completeExceptionally(
+                        new AccountException(ErrorCode.BALANCE_ENGINE_UNAVAILABLE));
+            }
+            return;
+        }
+
+        lastSeq = seq;
+        for (BalanceEntry entry : entries) {
+            // 해지 등으로 메모리에서 빠진 계좌는 snapshot 에도 남기지 않는다.
+            AccountState account = accounts.get(entry.getAccountNumber());
+            if (account != null) {
+                snapshot.put(account, entry.getBalanceSnapShot());
+            }
+        }
+        writeBehind.submit(entries);
+        for (BalanceEntry entry : entries) {
+            unpersisted.put(entry.getTransactionId(), entry);
+            written.add(entry);
+        }
+        for (PendingWrite write : group) {
+            write.future.complete(write.entries.get(write.entries.size() - 1).getSeq());
+            // 결제 직후 거래 조회가 몰리므로 캐시도 채운다.
+            write.entries.forEach(entry -> transactionCache.put(toDto(entry)));
+        }
+    }
+
+    private void releasePersisted(Deque<BalanceEntry> written) {
+        long persistedSeq = writeBehind.getPersistedSeq();
+        while (!written.isEmpty() && written.peekFirst().getSeq() <= persistedSeq) {
+            unpersisted.remove(written.pollFirst().getTransactionId());
+        }
+    }
+
+    private void checkpointIfDue() {
+        long now = System.currentTimeMillis();
+        if (!failed && lastSeq > checkpointedSeq && now - checkpointedAt >= checkpointIntervalMs) {
+            snapshot.checkpoint(lastSeq);
+            checkpointedSeq = lastSeq;
+            checkpointedAt = now;
+        }
+    }
+
+    private void releaseSegments() {
+        // DB 에 모두 반영된 이전 segment 는 지운다. (한가할 때만)
+        if (!failed) {
+            journal.release(writeBehind.getPersistedSeq());
+        }
+    }
+
+    // ---- lifecycle ----
+
+    @Override
+    public void start() {
+        if (!isEnabled()) {
+            // 다른 모드에서는 DB 잔액이 바뀌므로 다음에 IN_MEMORY 로 기동할 때 쓰지 않도록 지운다.
+            snapshot.invalidate();
+            return;
+        }
+        replayJournal();
+
+        shards = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "balance-shard-" + i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        running = true;
+        writeBehind.start(lastSeq);
+        journalWriter = new Thread(this::runJournal, "balance-journal-writer");
+        journalWriter.setDaemon(true);
+        journalWriter.start();
+        log.info("Balance engine started with {} shards", shardCount);
+    }
+
+    /**
+     * journal 에 남은 기록을 모두 DB 에 반영하고, snapshot 을 journal 에 맞춘 뒤 새 segment 부터 기록한다.
+     */
+    private void replayJournal() {
+        List<BalanceEntry> entries = journal.readAll();
+        long nextSeq = journal.nextSeq();
+        if (!entries.isEmpty()) {
+            log.info("Replay {} balance journal entries", entries.size());
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                writeBehind.persist(entries.subList(from, Math.min(from + batchSize, entries.size())));
+            }
+        }
+        lastSeq = nextSeq - 1;
+
+        long watermark = snapshot.open();
+        long firstSeq = entries.isEmpty() ? nextSeq : entries.get(0).getSeq();
+        snapshot.recover(watermark, entries, firstSeq, lastSeq);
+        snapshot.checkpoint(lastSeq);
+        checkpointedSeq = lastSeq;
+        checkpointedAt = System.currentTimeMillis();
+
+        journal.open(lastSeq + 1);
+        journal.release(lastSeq);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        try {
+            // 받은 거래를 모두 처리하고 journal 과 DB 에 남긴 뒤 멈춘다.
+            for (ExecutorService shard : shards) {
+                shard.shutdown();
+            }
+            for (ExecutorService shard : shards) {
+                shard.awaitTermination(30, TimeUnit.SECONDS);
+            }
+            running = false;
+            journalWriter.join();
+            if (!failed) {
+                snapshot.checkpoint(lastSeq);
+            }
+            writeBehind.stop();
+            if (!failed) {
+                journal.release(writeBehind.getPersistedSeq());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            journal.close();
+            snapshot.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 웹 서버보다 먼저 시작하고, 웹 서버가 멈춘 뒤에 멈춘다.
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private static class PendingWrite {
+        private final List<BalanceEntry> entries;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        private PendingWrite(List<BalanceEntry> entries) {
+            this.entries = entries;
+        }
+    }
+
+    private static class GroupResult {
+        private final List<BalanceEntry> entries;
+        private final List<ErrorCode> errorCodes;
+        private CompletableFuture<Long> written;
+
+        private GroupResult(int size) {
+            this.entries = new ArrayList<>(size);
+            this.errorCodes = new ArrayList<>(size);
+        }
+
+        private void add(BalanceEntry entry, ErrorCode errorCode) {
+            entries.add(entry);
+            errorCodes.add(errorCode);
+        }
+    }
+}
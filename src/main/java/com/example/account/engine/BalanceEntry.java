@@ -0,0 +1,27 @@
+package com.example.account.engine;
+
+import com.example.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * BalanceEngine 에서 성공한 잔액 변경 한 건
+ * journal 에 남긴 뒤 write-behind 로 Transaction 과 Account 잔액에 반영한다.
+ */
+@Getter
+@AllArgsConstructor
+public class BalanceEntry {
+    // journal 에 기록된 순서, journal 에 남길 때 정해진다.
+    @Setter
+    private long seq;
+    private final String transactionId;
+    private final Long accountId;
+    private final String accountNumber;
+    private final TransactionType transactionType;
+    private final long amount;
+    private final long balanceSnapShot;
+    private final LocalDateTime transactedAt;
+}
@@ -0,0 +1,324 @@
+package com.example.account.engine;
+
+import com.example.account.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * BalanceEngine 의 잔액 변경을 남기는 append-only journal (crash 복구 / DB 재구성용)
+ * 고정 길이(RECORD_SIZE) binary 기록을 memory-mapped segment 파일에 이어 쓰고,
+ * 여러 건을 쓴 뒤 한 번만 force(fsync) 한다. (group commit)
+ * segment 가 가득 차면 다음 seq 이름으로 새 segment 를 만든다. (journal-00000000000000000001.seg)
+ * DB 에 모두 반영된 segment 는 지우고, retain-segments 이면 재구성용으로 남겨 둔다.
+ */
+@Slf4j
+@Component
+public class BalanceJournal {
+    // seq(8) + 거래번호(32) + 계좌id(8) + 계좌번호(16) + 거래종류(1) + 금액(8)
+    // + 거래후잔액(8) + 거래시각(8) + crc(4) = 93, 8 byte 단위로 맞춘다.
+    static final int RECORD_SIZE = 96;
+    private static final int TRANSACTION_ID_BYTES = 32;
+    private static final int ACCOUNT_NUMBER_BYTES = 16;
+    private static final int CRC_OFFSET = 89;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final boolean retainSegments;
+
+    private Path segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public BalanceJournal(
+            @Value("${account.engine.journal.directory:./data/balance-journal}") String directory,
+            @Value("${account.engine.journal.segment-bytes:67108864}") long segmentBytes,
+            @Value("${account.engine.journal.retain-segments:false}") boolean retainSegments
+    ) {
+        this.directory = Paths.get(directory);
+        this.segmentRecords = (int) Math.max(1, Math.min(segmentBytes, Integer.MAX_VALUE) / RECORD_SIZE);
+        this.retainSegments = retainSegments;
+    }
+
+    /**
+     * nextSeq 부터 기록할 새 segment 를 연다. 기존 기록은 먼저 readAll 로 읽어 둔다.
+     */
+    public synchronized void open(long nextSeq) {
+        try {
+            Files.createDirectories(directory);
+            openSegment(nextSeq);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void append(List<BalanceEntry> entries) {
+        for (BalanceEntry entry : entries) {
+            if (buffer.remaining() < RECORD_SIZE) {
+                rollover(entry.getSeq());
+            }
+            write(buffer, entry);
+        }
+        // 응답 전에 디스크에 내려가야 crash 후에도 거래가 남는다.
+        buffer.force();
+    }
+
+    /**
+     * persistedSeq 까지 DB 에 반영된 경우 지금 쓰는 segment 를 뺀 이전 segment 를 지운다.
+     */
+    public synchronized void release(long persistedSeq) {
+        if (retainSegments) {
+            return;
+        }
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            Path current = segments.get(i);
+            // 다음 segment 의 첫 seq 보다 앞이면 이 segment 의 기록은 모두 반영된 것
+            long nextFirstSeq = firstSeq(segments.get(i + 1));
+            if (current.equals(segment) || nextFirstSeq - 1 > persistedSeq) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(current);
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}", current, e);
+            }
+        }
+    }
+
+    /**
+     * 다음에 기록할 seq, 기록이 없는 segment 도 이름으로 seq 를 이어 간다.
+     */
+    public synchronized long nextSeq() {
+        if (!Files.isDirectory(directory)) {
+            return 1L;
+        }
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            return 1L;
+        }
+        Path last = segments.get(segments.size() - 1);
+        long count = 0;
+        try (FileChannel readChannel = FileChannel.open(last, StandardOpenOption.READ)) {
+            ByteBuffer records = readChannel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            while (records.remaining() >= RECORD_SIZE && read(records) != null) {
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return firstSeq(last) + count;
+    }
+
+    /**
+     * 모든 segment 의 기록을 seq 순서대로 읽는다.
+     * 끝까지 쓰지 못한(crc 가 맞지 않는) 기록을 만나면 그 segment 는 거기까지만 읽는다.
+     */
+    public synchronized List<BalanceEntry> readAll() {
+        List<BalanceEntry> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+        for (Path path : listSegments()) {
+            try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer records = readChannel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                while (records.remaining() >= RECORD_SIZE) {
+                    BalanceEntry entry = read(records);
+                    if (entry == null) {
+                        break;
+                    }
+                    entries.add(entry);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return entries;
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close balance journal {}", segment, e);
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    private void rollover(long nextSeq) {
+        buffer.force();
+        try {
+            channel.close();
+            openSegment(nextSeq);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Roll over balance journal to {}", segment);
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        // 같은 이름의 segment 는 이전 기동에서 기록 없이 남은 것이므로 새로 만든다.
+        Files.deleteIfExists(segment);
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                (long) segmentRecords * RECORD_SIZE);
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSeq(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static void write(ByteBuffer buffer, BalanceEntry entry) {
+        int start = buffer.position();
+        buffer.putLong(entry.getSeq());
+        putAscii(buffer, entry.getTransactionId(), TRANSACTION_ID_BYTES);
+        buffer.putLong(entry.getAccountId());
+        putAscii(buffer, entry.getAccountNumber(), ACCOUNT_NUMBER_BYTES);
+        buffer.put(typeCode(entry.getTransactionType()));
+        buffer.putLong(entry.getAmount());
+        buffer.putLong(entry.getBalanceSnapShot());
+        buffer.putLong(toEpochNanos(entry.getTransactedAt()));
+        buffer.putInt(crc(buffer, start));
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    /**
+     * 비어 있거나 잘린 기록이면 null
+     */
+    static BalanceEntry read(ByteBuffer buffer) {
+        int start = buffer.position();
+        long seq = buffer.getLong(start);
+        if (seq == 0L || buffer.getInt(start + CRC_OFFSET) != crc(buffer, start)) {
+            return null;
+        }
+        buffer.position(start + Long.BYTES);
+        String transactionId = getAscii(buffer, TRANSACTION_ID_BYTES);
+        long accountId = buffer.getLong();
+        String accountNumber = getAscii(buffer, ACCOUNT_NUMBER_BYTES);
+        TransactionType transactionType = transactionType(buffer.get());
+        long amount = buffer.getLong();
+        long balanceSnapShot = buffer.getLong();
+        LocalDateTime transactedAt = fromEpochNanos(buffer.getLong());
+        buffer.position(start + RECORD_SIZE);
+
+        return new BalanceEntry(seq, transactionId, accountId, accountNumber,
+                transactionType, amount, balanceSnapShot, transactedAt);
+    }
+
+    /**
+     * 거래종류 기록 값, enum 순서가 바뀌어도 이미 쓴 segment 를 읽을 수 있도록 고정한다.
+     */
+    private static byte typeCode(TransactionType transactionType) {
+        switch (transactionType) {
+            case USE:
+                return 0;
+            case CANCEL:
+                return 1;
+            case TRANSFER_OUT:
+                return 2;
+            case TRANSFER_IN:
+                return 3;
+            default:
+                throw new IllegalArgumentException("No journal code for " + transactionType);
+        }
+    }
+
+    private static TransactionType transactionType(byte code) {
+        switch (code) {
+            case 0:
+                return TransactionType.USE;
+            case 1:
+                return TransactionType.CANCEL;
+            case 2:
+                return TransactionType.TRANSFER_OUT;
+            case 3:
+                return TransactionType.TRANSFER_IN;
+            default:
+                throw new IllegalStateException("Unknown journal transaction type code " + code);
+        }
+    }
+
+    private static int crc(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        ByteBuffer record = buffer.duplicate();
+        record.limit(start + CRC_OFFSET).position(start);
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    private static void putAscii(ByteBuffer buffer, String value, int length) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > length) {
+            throw new IllegalArgumentException("Too long for journal record: " + value);
+        }
+        buffer.put(bytes);
+        // 남는 자리는 0 으로 채운다.
+        for (int i = bytes.length; i < length; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static String getAscii(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        int end = 0;
+        while (end < length && bytes[end] != 0) {
+            end++;
+        }
+        return new String(bytes, 0, end, StandardCharsets.US_ASCII);
+    }
+
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
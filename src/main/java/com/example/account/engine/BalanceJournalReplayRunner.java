@@ -0,0 +1,61 @@
+package com.example.account.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * journal 로 DB 의 거래(Transaction)와 계좌 잔액을 다시 만드는 도구
+ * 남아 있는 segment 를 처음부터 읽어 write-behind 와 같은 방식으로 반영하고 종료한다.
+ * 이미 저장된 거래는 건너뛰므로 여러 번 실행해도 결과가 같다.
+ * 계좌(Account) 생성은 journal 에 없으므로 계좌는 먼저 있어야 하고,
+ * 처음부터 다시 만들려면 account.engine.journal.retain-segments 로 segment 를 남겨 두어야 하고,
+ * 첫 기록(seq 1)부터 남아 있지 않으면 일부만 반영하지 않고 실패한다.
+ * 실행 : ./gradlew bootRun --args='--account.engine.replay=true --spring.main.web-application-type=none'
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.engine.replay", havingValue = "true")
+public class BalanceJournalReplayRunner implements ApplicationRunner {
+    private final BalanceJournal journal;
+    private final BalanceWriteBehind writeBehind;
+    private final ConfigurableApplicationContext context;
+    private final int batchSize;
+
+    public BalanceJournalReplayRunner(
+            BalanceJournal journal,
+            BalanceWriteBehind writeBehind,
+            ConfigurableApplicationContext context,
+            @Value("${account.engine.batch-size:500}") int batchSize
+    ) {
+        this.journal = journal;
+        this.writeBehind = writeBehind;
+        this.context = context;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<BalanceEntry> entries = journal.readAll();
+        if (entries.isEmpty() || entries.get(0).getSeq() != 1L) {
+            throw new IllegalStateException("Balance journal has no history from seq 1 (first: "
+                    + (entries.isEmpty() ? "none" : entries.get(0).getSeq())
+                    + "), run with account.engine.journal.retain-segments=true to keep segments");
+        }
+        log.info("Replay {} balance journal entries to DB", entries.size());
+
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            writeBehind.persist(entries.subList(from, Math.min(from + batchSize, entries.size())));
+        }
+
+        log.info("Balance journal replay finished");
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.account.engine;
+
+import com.example.account.type.AccountStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * BalanceEngine 계좌 상태의 off-heap snapshot (memory-mapped 파일)
+ * 계좌 번호 -> (계좌id, 잔액, 상태, 소유자id) 를 고정 길이 slot 의 open addressing hash table 로 둔다.
+ * 조회 구조가 파일 안에 있으므로 GC 힙을 쓰지 않고, 재기동 시 계좌 테이블을 다시 읽지 않아도 된다.
+ * journal 에 기록된 값만 반영하고, checkpoint 때 어느 seq 까지 반영했는지(watermark)를 header 에 남긴다.
+ * 기동 시 journal 에 watermark 다음 기록이 모두 남아 있으면 그 기록을 덧씌워 쓰고, 아니면 버린다.
+ * 지운 slot(tombstone)도 탐색 길이를 늘리므로 load factor 에 포함하고, checkpoint 때 다시 배치(compact)한다.
+ */
+@Slf4j
+@Component
+public class BalanceSnapshot {
+    private static final int MAGIC = 0x42414C53; // "BALS"
+    private static final int VERSION = 2;
+
+    // magic(4) + version(4) + watermark(8) + capacity(4) + size(4) + removed(4), 나머지는 비워 둔다.
+    private static final int HEADER_SIZE = 64;
+    private static final int WATERMARK_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int SIZE_OFFSET = 20;
+    private static final int REMOVED_OFFSET = 24;
+
+    // 계좌번호(16) + 계좌id(8) + 소유자id(8) + 잔액(8) + 상태(1) + slot 상태(1) = 42, 8 byte 단위로 맞춘다.
+    static final int SLOT_SIZE = 48;
+    private static final int ACCOUNT_NUMBER_BYTES = 16;
+    private static final int ID_OFFSET = 16;
+    private static final int USER_ID_OFFSET = 24;
+    private static final int BALANCE_OFFSET = 32;
+    private static final int STATUS_OFFSET = 40;
+    private static final int SLOT_STATE_OFFSET = 41;
+
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+    private static final byte REMOVED = 2;
+
+    // 사용 중 + 지운 slot 이 이 비율을 넘으면 새 계좌는 snapshot 에 넣지 않는다. (조회 시 탐색 길이 제한)
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    // 지운 slot 이 이 비율을 넘으면 checkpoint 때 compact 한다.
+    private static final double MAX_REMOVED_FACTOR = 0.125;
+
+    private final Path path;
+    private final int capacity;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int size;
+    private int removed;
+    private boolean full;
+
+    public BalanceSnapshot(
+            @Value("${account.engine.snapshot.file:./data/balance-snapshot.dat}") String path,
+            @Value("${account.engine.snapshot.capacity:1048576}") int capacity
+    ) {
+        this.path = Paths.get(path);
+        this.capacity = capacity;
+    }
+
+    /**
+     * 파일을 열고 header 가 맞으면 watermark 를, 새로 만들었거나 맞지 않으면 비우고 -1 을 돌려준다.
+     */
+    public synchronized long open() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            map();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(CAPACITY_OFFSET) != capacity) {
+            clear();
+            return -1L;
+        }
+        size = buffer.getInt(SIZE_OFFSET);
+        removed = buffer.getInt(REMOVED_OFFSET);
+        full = isFull();
+        return buffer.getLong(WATERMARK_OFFSET);
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * SLOT_SIZE);
+    }
+
+    /**
+     * journal 에 남은 기록(entries, firstSeq ~ lastSeq) 중 watermark 다음 기록을 덧씌운다.
+     * 기록이 이어지지 않으면 snapshot 을 비우고 false 를 돌려준다.
+     */
+    public synchronized boolean recover(long watermark, List<BalanceEntry> entries,
+                                        long firstSeq, long lastSeq) {
+        if (watermark < 0) {
+            return false;
+        }
+        // watermark 와 journal 사이에 지워진 기록이 있거나, journal 이 watermark 보다 뒤처진 경우
+        if (watermark + 1 < firstSeq || watermark > lastSeq) {
+            log.info("Discard balance snapshot. watermark: {}, journal: {} ~ {}",
+                    watermark, firstSeq, lastSeq);
+            clear();
+            return false;
+        }
+        int applied = 0;
+        for (BalanceEntry entry : entries) {
+            if (entry.getSeq() > watermark) {
+                int slot = find(entry.getAccountNumber());
+                if (slot >= 0) {
+                    buffer.putLong(offset(slot) + BALANCE_OFFSET, entry.getBalanceSnapShot());
+                    applied++;
+                }
+            }
+        }
+        log.info("Recovered balance snapshot with {} accounts, applied {} journal entries",
+                size, applied);
+        return true;
+    }
+
+    public synchronized Optional<AccountState> get(String accountNumber) {
+        int slot = find(accountNumber);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        int offset = offset(slot);
+        return Optional.of(new AccountState(
+                buffer.getLong(offset + ID_OFFSET),
+                accountNumber,
+                buffer.getLong(offset + USER_ID_OFFSET),
+                accountStatus(buffer.get(offset + STATUS_OFFSET)),
+                buffer.getLong(offset + BALANCE_OFFSET)));
+    }
+
+    /**
+     * journal 에 기록된 잔액을 반영, 처음 보는 계좌면 slot 을 새로 만든다.
+     */
+    public synchronized void put(AccountState account, long balance) {
+        int slot = find(account.getAccountNumber());
+        if (slot < 0) {
+            if (full) {
+                return;
+            }
+            slot = insert(account.getAccountNumber());
+            int offset = offset(slot);
+            if (buffer.get(offset + SLOT_STATE_OFFSET) == REMOVED) {
+                buffer.putInt(REMOVED_OFFSET, --removed);
+            }
+            buffer.putLong(offset + ID_OFFSET, account.getId());
+            buffer.putLong(offset + USER_ID_OFFSET, account.getUserId());
+            buffer.put(offset + STATUS_OFFSET, statusCode(account.getAccountStatus()));
+            buffer.put(offset + SLOT_STATE_OFFSET, USED);
+            buffer.putInt(SIZE_OFFSET, ++size);
+            if (isFull()) {
+                full = true;
+                log.warn("Balance snapshot is full ({} accounts, {} removed), "
+                        + "new accounts are loaded from DB", size, removed);
+            }
+        }
+        buffer.putLong(offset(slot) + BALANCE_OFFSET, balance);
+    }
+
+    public synchronized void remove(String accountNumber) {
+        int slot = find(accountNumber);
+        if (slot < 0) {
+            return;
+        }
+        // 지운 slot 은 탐색을 끊지 않도록 남겨 둔다.
+        buffer.put(offset(slot) + SLOT_STATE_OFFSET, REMOVED);
+        buffer.putInt(SIZE_OFFSET, --size);
+        buffer.putInt(REMOVED_OFFSET, ++removed);
+        // 해지는 journal 에 남지 않고 새 거래가 없으면 checkpoint 도 돌지 않으므로 바로 내린다. (드물다)
+        buffer.force();
+    }
+
+    /**
+     * 지금까지 반영한 값을 디스크에 내리고 watermark 를 남긴다.
+     * slot 을 먼저 내린 뒤 watermark 를 쓰므로 watermark 이전 기록은 모두 파일에 있다.
+     * 지운 slot 이 많으면 대신 compact 한 파일로 바꾼다.
+     */
+    public synchronized void checkpoint(long watermark) {
+        if (removed > 0 && (full || removed >= capacity * MAX_REMOVED_FACTOR)) {
+            compact(watermark);
+            return;
+        }
+        buffer.force();
+        buffer.putLong(WATERMARK_OFFSET, watermark);
+        buffer.force();
+    }
+
+    int removedSlots() {
+        return removed;
+    }
+
+    /**
+     * 사용 중인 slot 만 새 파일에 다시 배치하고 파일을 바꾼다. (지운 slot 제거)
+     * 새 파일을 모두 내린 뒤 이름을 바꾸므로 중간에 죽어도 이전 파일이 그대로 남는다.
+     */
+    private void compact(long watermark) {
+        Path compactPath = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            try (FileChannel compactChannel = FileChannel.open(compactPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer compacted = compactChannel.map(FileChannel.MapMode.READ_WRITE,
+                        0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+                byte[] slotBytes = new byte[SLOT_SIZE];
+                for (int slot = 0; slot < capacity; slot++) {
+                    int offset = offset(slot);
+                    if (buffer.get(offset + SLOT_STATE_OFFSET) != USED) {
+                        continue;
+                    }
+                    buffer.duplicate().position(offset).get(slotBytes);
+                    int target = freeSlot(compacted,
+                            Arrays.copyOf(slotBytes, ACCOUNT_NUMBER_BYTES));
+                    compacted.duplicate().position(offset(target)).put(slotBytes);
+                }
+                compacted.putInt(0, MAGIC);
+                compacted.putInt(4, VERSION);
+                compacted.putLong(WATERMARK_OFFSET, watermark);
+                compacted.putInt(CAPACITY_OFFSET, capacity);
+                compacted.putInt(SIZE_OFFSET, size);
+                compacted.putInt(REMOVED_OFFSET, 0);
+                compacted.force();
+            }
+            channel.close();
+            Files.move(compactPath, path,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Compacted balance snapshot, {} accounts, {} removed slots dropped",
+                size, removed);
+        removed = 0;
+        full = isFull();
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close balance snapshot {}", path, e);
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    /**
+     * 다른 동시성 모드로 실행하면 DB 잔액이 바뀔 수 있으므로 snapshot 을 지운다.
+     */
+    public synchronized void invalidate() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void clear() {
+        byte[] zeros = new byte[SLOT_SIZE * 1024];
+        buffer.position(0);
+        while (buffer.hasRemaining()) {
+            buffer.put(zeros, 0, Math.min(zeros.length, buffer.remaining()));
+        }
+        buffer.position(0);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(WATERMARK_OFFSET, 0L);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(SIZE_OFFSET, 0);
+        buffer.putInt(REMOVED_OFFSET, 0);
+        buffer.force();
+        size = 0;
+        removed = 0;
+        full = false;
+    }
+
+    private int find(String accountNumber) {
+        byte[] key = key(accountNumber);
+        int slot = home(key);
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = offset(slot);
+            byte state = buffer.get(offset + SLOT_STATE_OFFSET);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && matches(offset, key)) {
+                return slot;
+            }
+            slot = (slot + 1) % capacity;
+        }
+        return -1;
+    }
+
+    private int insert(String accountNumber) {
+        byte[] key = key(accountNumber);
+        int slot = freeSlot(buffer, key);
+        int offset = offset(slot);
+        for (int i = 0; i < ACCOUNT_NUMBER_BYTES; i++) {
+            buffer.put(offset + i, key[i]);
+        }
+        return slot;
+    }
+
+    /**
+     * 빈 slot 이나 지워진 slot 중 처음 만나는 곳
+     */
+    private int freeSlot(MappedByteBuffer target, byte[] key) {
+        int slot = home(key);
+        while (target.get(offset(slot) + SLOT_STATE_OFFSET) == USED) {
+            slot = (slot + 1) % capacity;
+        }
+        return slot;
+    }
+
+    /**
+     * 계좌 상태 기록 값, enum 순서가 바뀌어도 이미 쓴 snapshot 을 읽을 수 있도록 고정한다.
+     */
+    private static byte statusCode(AccountStatus accountStatus) {
+        switch (accountStatus) {
+            case IN_USE:
+                return 0;
+            case UNREGISTERED:
+                return 1;
+            default:
+                throw new IllegalArgumentException("No snapshot code for " + accountStatus);
+        }
+    }
+
+    private static AccountStatus accountStatus(byte code) {
+        switch (code) {
+            case 0:
+                return AccountStatus.IN_USE;
+            case 1:
+                return AccountStatus.UNREGISTERED;
+            default:
+                throw new IllegalStateException("Unknown snapshot account status code " + code);
+        }
+    }
+
+    private boolean isFull() {
+        return size + removed >= capacity * MAX_LOAD_FACTOR;
+    }
+
+    private boolean matches(int offset, byte[] key) {
+        for (int i = 0; i < ACCOUNT_NUMBER_BYTES; i++) {
+            if (buffer.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int home(byte[] key) {
+        return Math.floorMod(Arrays.hashCode(key), capacity);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static byte[] key(String accountNumber) {
+        byte[] bytes = accountNumber.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > ACCOUNT_NUMBER_BYTES) {
+            throw new IllegalArgumentException("Too long for balance snapshot: " + accountNumber);
+        }
+        return Arrays.copyOf(bytes, ACCOUNT_NUMBER_BYTES);
+    }
+}
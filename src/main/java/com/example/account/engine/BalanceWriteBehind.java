@@ -0,0 +1,207 @@
+package com.example.account.engine;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.S;
+
+/**
+ * journal 에 남긴 잔액 변경을 batch 단위로 DB 에 반영 (write-behind)
+ * 거래(Transaction)는 한 번에 저장하고, 계좌 잔액은 batch 안의 마지막 거래후잔액으로 맞춘다.
+ * 이미 저장된 거래번호는 건너뛰므로 같은 기록을 여러 번 반영해도 결과가 같다.
+ */
+@Slf4j
+@Component
+public class BalanceWriteBehind {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<BalanceEntry> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long persistTimeoutMs;
+
+    private final Counter writtenCounter;
+
+    private final Object persistedMonitor = new Object();
+    private volatile long persistedSeq;
+    private volatile boolean running;
+    private Thread writer;
+
+    public BalanceWriteBehind(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${account.engine.batch-size:500}") int batchSize,
+            @Value("${account.engine.flush-interval-ms:10}") long flushIntervalMs,
+            @Value("${account.engine.persist-timeout-ms:5000}") long persistTimeoutMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.persistTimeoutMs = persistTimeoutMs;
+
+        this.writtenCounter = Counter.builder("account.engine.written")
+                .description("write-behind 로 DB 에 저장한 거래 수")
+                .register(meterRegistry);
+    }
+
+    public void start(long persistedSeq) {
+        this.persistedSeq = persistedSeq;
+        running = true;
+        writer = new Thread(this::run, "balance-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 대기열에 남은 기록을 저장한 뒤 멈춘다.
+     * 시간 안에 저장하지 못한 기록은 journal 에 남아 있으므로 다음 기동 시 반영된다.
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public void submit(List<BalanceEntry> entries) {
+        queue.addAll(entries);
+    }
+
+    public long getPersistedSeq() {
+        return persistedSeq;
+    }
+
+    /**
+     * seq 까지의 기록이 DB 에 저장될 때까지 persist-timeout-ms 동안 기다린다.
+     * DB 저장이 계속 실패하면(같은 batch 를 다시 시도) 시간이 지난 뒤 false 를 돌려준다.
+     */
+    public boolean awaitPersisted(long seq) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(persistTimeoutMs);
+        synchronized (persistedMonitor) {
+            while (persistedSeq < seq) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                persistedMonitor.wait(Math.max(1L, Math.min(remaining, flushIntervalMs)));
+            }
+        }
+        return true;
+    }
+
+    private void run() {
+        List<BalanceEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    BalanceEntry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                persist(batch);
+                markPersisted(batch.get(batch.size() - 1).getSeq());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // journal 에 남아 있으므로 버리지 않고 같은 batch 를 다시 시도
+                log.error("Failed to write {} balance entries, retry", batch.size(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(flushIntervalMs * 10);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void markPersisted(long seq) {
+        synchronized (persistedMonitor) {
+            persistedSeq = seq;
+            persistedMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * 기록을 한 트랜잭션에서 DB 에 반영 (기동 시 journal 재반영에도 사용)
+     */
+    public void persist(List<BalanceEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> saved = new HashSet<>(transactionRepository.findTransactionIdsIn(
+                    entries.stream()
+                            .map(BalanceEntry::getTransactionId)
+                            .collect(Collectors.toList())));
+
+            Map<Long, Account> accounts = accountRepository.findAllById(
+                            entries.stream()
+                                    .map(BalanceEntry::getAccountId)
+                                    .collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+            List<Transaction> transactions = new ArrayList<>(entries.size());
+            Map<Long, Long> balances = new LinkedHashMap<>();
+            for (BalanceEntry entry : entries) {
+                Account account = accounts.get(entry.getAccountId());
+                if (account == null) {
+                    log.warn("Drop balance entry {} for unknown account {}",
+                            entry.getTransactionId(), entry.getAccountId());
+                    continue;
+                }
+                // 계좌의 기록은 seq 순서대로 들어오므로 마지막 값이 최신 잔액
+                balances.put(account.getId(), entry.getBalanceSnapShot());
+                if (!saved.contains(entry.getTransactionId())) {
+                    transactions.add(toTransaction(entry, account));
+                }
+            }
+
+            balances.forEach((accountId, balance) -> accounts.get(accountId).setBalance(balance));
+            transactionRepository.saveAll(transactions);
+            writtenCounter.increment(transactions.size());
+        });
+    }
+
+    private static Transaction toTransaction(BalanceEntry entry, Account account) {
+        return Transaction.builder()
+                .transactionType(entry.getTransactionType())
+                .transactionResultType(S)
+                .account(account)
+                .amount(entry.getAmount())
+                .balanceSnapShot(entry.getBalanceSnapShot())
+                .transactionId(entry.getTransactionId())
+                .transactedAt(entry.getTransactedAt())
+                .build();
+    }
+}
@@ -2,36 +2,64 @@ package com.example.account.exception;
 
 
 import com.example.account.dto.ErrorResponse;
+import com.example.account.metrics.AccountMetrics;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_CONFLICT;
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
 import static com.example.account.type.ErrorCode.INTERNAL_SERVER_ERROR;
 import static com.example.account.type.ErrorCode.INVALID_REQUEST;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    private final AccountMetrics accountMetrics;
 
     @ExceptionHandler(AccountException.class)
     public ErrorResponse handleAccountException(AccountException e) {
         log.error("{} is occurred", e.getErrorMessage());
 
-        return new ErrorResponse(e.getErrorCode(), e.getErrorMessage());
+        return errorResponse(e.getErrorCode(), e.getErrorMessage());
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ErrorResponse handlerDataIntegrityViolationException(DataIntegrityViolationException e) {
         log.error("DataIntegrityViolationException is occurred");
 
-        return new ErrorResponse(INVALID_REQUEST, INVALID_REQUEST.getDescription());
+        return errorResponse(INVALID_REQUEST, INVALID_REQUEST.getDescription());
+    }
+
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    public ErrorResponse handlePessimisticLockingFailureException(PessimisticLockingFailureException e) {
+        log.error("PessimisticLockingFailureException is occurred");
+
+        return errorResponse(ACCOUNT_TRANSACTION_LOCK, ACCOUNT_TRANSACTION_LOCK.getDescription());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ErrorResponse handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.error("OptimisticLockingFailureException is occurred");
+
+        return errorResponse(ACCOUNT_TRANSACTION_CONFLICT, ACCOUNT_TRANSACTION_CONFLICT.getDescription());
     }
 
     @ExceptionHandler(Exception.class)
     public ErrorResponse handleException(Exception e) {
         log.error("Exception is occurred");
 
-        return new ErrorResponse(INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR.getDescription());
+        return errorResponse(INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR.getDescription());
+    }
+
+    private ErrorResponse errorResponse(ErrorCode errorCode, String errorMessage) {
+        accountMetrics.error(errorCode);
+        return new ErrorResponse(errorCode, errorMessage);
     }
 }
@@ -0,0 +1,235 @@
+package com.example.account.failure;
+
+import com.example.account.dto.FailedTransaction;
+import com.example.account.service.TransactionService;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실패(F) 거래를 요청 스레드 대신 백그라운드에서 모아서 저장 (write-behind)
+ * 요청 스레드는 대기열에 넣기만 하고, writer 스레드가 batch 단위로 DB 에 저장한다.
+ * DB 저장에 실패하거나 서버가 종료되면 spill 파일에 남기고, 다음 기동 시 spill 파일을 먼저 DB 에 반영한다.
+ * 대기열이 가득 차면 overflow 에 넘기고, 요청 스레드 대신 writer 스레드가 spill 파일에 남긴다.
+ */
+@Slf4j
+@Component
+public class FailedTransactionQueue {
+    private final TransactionService transactionService;
+    private final FailedTransactionSpillFile spillFile;
+
+    private final BlockingQueue<FailedTransaction> queue;
+    // 대기열이 가득 찬 동안 들어온 실패 거래, writer 가 spill 파일에 옮긴다.
+    private final Queue<FailedTransaction> overflow = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Counter writtenCounter;
+    private final Counter spilledCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writer;
+
+    public FailedTransactionQueue(
+            TransactionService transactionService,
+            FailedTransactionSpillFile spillFile,
+            @Value("${account.failed-transaction.capacity:10000}") int capacity,
+            @Value("${account.failed-transaction.batch-size:500}") int batchSize,
+            @Value("${account.failed-transaction.flush-interval-ms:200}") long flushIntervalMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.transactionService = transactionService;
+        this.spillFile = spillFile;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("account.failed-transaction.queue.size", queue, BlockingQueue::size)
+                .description("저장을 기다리는 실패 거래 수")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("account.failed-transaction.written")
+                .description("DB 에 저장한 실패 거래 수")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("account.failed-transaction.spilled")
+                .description("spill 파일에 남긴 실패 거래 수")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("account.failed-transaction.dropped")
+                .description("spill 파일에 남기지 못해 버린 실패 거래 수")
+                .register(meterRegistry);
+    }
+
+    public void enqueue(TransactionType transactionType, String accountNumber, Long amount) {
+        FailedTransaction failedTransaction = new FailedTransaction(
+                transactionType, accountNumber, amount, LocalDateTime.now());
+
+        if (stopped) {
+            // 종료 중에는 writer 가 없으므로 바로 파일에 남긴다.
+            spill(List.of(failedTransaction));
+            return;
+        }
+        if (!queue.offer(failedTransaction)) {
+            // 요청 스레드(계좌 lock 보유 중)에서 파일을 쓰지 않도록 writer 에 넘긴다.
+            overflow.add(failedTransaction);
+        }
+        if (stopped) {
+            // stop() 이 대기열을 비운 뒤에 들어간 경우
+            spillRemaining();
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        replaySpillFile();
+
+        running = true;
+        writer = new Thread(this::run, "failed-transaction-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(flushIntervalMs * 10);
+        }
+        stopped = true;
+
+        // 남은 건은 종료 중인 DB 대신 파일에 남기고 다음 기동 시 반영
+        spillRemaining();
+    }
+
+    private void spillRemaining() {
+        spillOverflow();
+        List<FailedTransaction> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+    }
+
+    private void spillOverflow() {
+        List<FailedTransaction> overflowed = new ArrayList<>();
+        FailedTransaction failedTransaction;
+        while ((failedTransaction = overflow.poll()) != null) {
+            overflowed.add(failedTransaction);
+        }
+        if (!overflowed.isEmpty()) {
+            log.warn("Failed transaction queue is full, spill {} to file", overflowed.size());
+            spill(overflowed);
+        }
+    }
+
+    private void run() {
+        List<FailedTransaction> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                spillOverflow();
+                FailedTransaction first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 대기열에 쌓인 실패 거래를 모두 저장
+     */
+    public void flush() {
+        List<FailedTransaction> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<FailedTransaction> batch) {
+        try {
+            transactionService.saveFailedTransactions(batch);
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} failed transactions, spill to file", batch.size(), e);
+            spill(batch);
+        }
+    }
+
+    private void spill(List<FailedTransaction> failedTransactions) {
+        try {
+            spillFile.append(failedTransactions);
+            spilledCounter.increment(failedTransactions.size());
+        } catch (RuntimeException e) {
+            // spill 실패가 호출한 쪽(요청 처리, writer 스레드)으로 전파되지 않도록 한다.
+            drop(failedTransactions, "spill failed: " + e.getMessage());
+        }
+    }
+
+    private void drop(List<FailedTransaction> failedTransactions, String reason) {
+        droppedCounter.increment(failedTransactions.size());
+        for (FailedTransaction failedTransaction : failedTransactions) {
+            log.warn("Drop failed transaction ({}) : {},{},{},{}", reason,
+                    failedTransaction.getTransactionType(), failedTransaction.getAccountNumber(),
+                    failedTransaction.getAmount(), failedTransaction.getTransactedAt());
+        }
+    }
+
+    private void replaySpillFile() {
+        // 모두 저장하기 전에는 파일을 지우지 않는다.
+        List<FailedTransaction> spilled = spillFile.beginReplay();
+        if (spilled.isEmpty()) {
+            spillFile.finishReplay();
+            return;
+        }
+        log.info("Replay {} spilled failed transactions", spilled.size());
+        int from = 0;
+        try {
+            for (; from < spilled.size(); from += batchSize) {
+                List<FailedTransaction> batch =
+                        spilled.subList(from, Math.min(from + batchSize, spilled.size()));
+                transactionService.saveFailedTransactions(batch);
+                writtenCounter.increment(batch.size());
+            }
+        } catch (RuntimeException e) {
+            // 저장하지 못한 나머지는 다시 파일에 남겨 두고 다음 기동 시 반영
+            log.error("Failed to replay spilled failed transactions", e);
+            try {
+                spillFile.append(spilled.subList(from, spilled.size()));
+            } catch (RuntimeException spillFailed) {
+                // 반영 중인 파일을 남겨 두고 다음 기동 시 처음부터 다시 반영
+                log.error("Keep replaying spill file for next start", spillFailed);
+                return;
+            }
+        }
+        spillFile.finishReplay();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.account.failure;
+
+import com.example.account.dto.FailedTransaction;
+import com.example.account.type.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DB 에 저장하지 못한 실패 거래를 한 줄에 하나씩 남기는 파일
+ * 형식 : 거래종류,계좌번호,금액,거래시각
+ */
+@Slf4j
+@Component
+public class FailedTransactionSpillFile {
+    private final Path path;
+    // 다시 반영 중인 파일, 모두 저장한 뒤 지운다.
+    private final Path replayingPath;
+
+    public FailedTransactionSpillFile(
+            @Value("${account.failed-transaction.spill-file:./data/failed-transactions.log}") String path
+    ) {
+        this.path = Paths.get(path);
+        this.replayingPath = Paths.get(path + ".replaying");
+    }
+
+    public synchronized void append(Collection<FailedTransaction> failedTransactions) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            // DSYNC : 기록이 끝나면 디스크에 내려간 뒤 반환
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                    StandardOpenOption.WRITE, StandardOpenOption.DSYNC)) {
+                for (FailedTransaction failedTransaction : failedTransactions) {
+                    writer.write(format(failedTransaction));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to spill {} failed transactions to {}",
+                    failedTransactions.size(), path, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 다시 반영할 실패 거래를 읽는다. 파일은 지우지 않고 .replaying 으로 이름만 바꾸고,
+     * 모두 저장한 뒤 finishReplay 로 지운다.
+     * 저장 중에 죽으면 다음 기동 시 .replaying 파일을 처음부터 다시 반영한다. (F 기록이 중복될 수는 있어도 잃지 않는다)
+     */
+    public synchronized List<FailedTransaction> beginReplay() {
+        try {
+            if (!Files.exists(replayingPath) && Files.exists(path)) {
+                Files.move(path, replayingPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return read(replayingPath);
+    }
+
+    public synchronized void finishReplay() {
+        try {
+            Files.deleteIfExists(replayingPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized List<FailedTransaction> readAll() {
+        return read(path);
+    }
+
+    private static List<FailedTransaction> read(Path path) {
+        List<FailedTransaction> failedTransactions = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return failedTransactions;
+        }
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    failedTransactions.add(parse(line));
+                } catch (RuntimeException e) {
+                    // 종료 중 잘린 마지막 줄 등은 건너뛴다.
+                    log.warn("Skip malformed spill line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return failedTransactions;
+    }
+
+    private static String format(FailedTransaction failedTransaction) {
+        return failedTransaction.getTransactionType() + ","
+                + failedTransaction.getAccountNumber() + ","
+                + failedTransaction.getAmount() + ","
+                + failedTransaction.getTransactedAt();
+    }
+
+    private static FailedTransaction parse(String line) {
+        String[] fields = line.split(",");
+        return new FailedTransaction(
+                TransactionType.valueOf(fields[0]),
+                fields[1],
+                Long.parseLong(fields[2]),
+                LocalDateTime.parse(fields[3]));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.account.fault;
+
+import com.example.account.config.FaultInjectionProperties;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.FaultPoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 지정한 지점(lock 획득, DB 읽기/쓰기)에 지연이나 오류를 주입
+ * lock 경합 실험용이며 기본은 꺼져 있어서 boolean 확인 한 번 외에는 비용이 없다.
+ */
+@Slf4j
+@Component
+public class FaultInjector {
+    private final boolean enabled;
+    private final Map<FaultPoint, FaultInjectionProperties.Fault> faults;
+    private final MeterRegistry meterRegistry;
+
+    public FaultInjector(FaultInjectionProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.faults = new EnumMap<>(FaultPoint.class);
+        this.faults.putAll(properties.getPoints());
+        this.meterRegistry = meterRegistry;
+
+        if (enabled) {
+            log.warn("======Fault injection is enabled: {}======", faults.keySet());
+        }
+    }
+
+    public void inject(FaultPoint point) {
+        if (!enabled) {
+            return;
+        }
+        FaultInjectionProperties.Fault fault = faults.get(point);
+        if (fault == null) {
+            return;
+        }
+
+        if (fault.getLatencyMs() > 0) {
+            meterRegistry.counter("account.fault.injected",
+                    "point", point.name(), "type", "latency").increment();
+            try {
+                Thread.sleep(fault.getLatencyMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (fault.getErrorRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < fault.getErrorRate()) {
+            meterRegistry.counter("account.fault.injected",
+                    "point", point.name(), "type", "error").increment();
+            throw error(point);
+        }
+    }
+
+    private static RuntimeException error(FaultPoint point) {
+        if (point == FaultPoint.LOCK_ACQUIRE) {
+            return new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        return new TransientDataAccessResourceException("Injected fault at " + point);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.account.id;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 기존 방식 (UUID v4 에서 '-' 를 뺀 값)
+ * 순서가 없어서 거래 번호 index 의 여러 곳에 흩어져 insert 된다.
+ */
+@Component
+@ConditionalOnProperty(name = "account.transaction-id.generator", havingValue = "random")
+public class RandomTransactionIdGenerator implements TransactionIdGenerator {
+
+    @Override
+    public String next() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.account.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 시간 순서로 커지는 거래 번호 (Snowflake / ULID 방식)
+ * 발급 시각(ms, 48bit) + 순번(16bit) + 서버 번호(16bit) + 난수(48bit) = 128bit 를 16진수 32자리로 쓴다.
+ * 나중에 발급한 번호가 항상 더 크므로 거래 번호 index 의 끝에 모여서 insert 된다.
+ * 같은 ms 에 순번을 다 쓰거나 시계가 뒤로 가면 다음 ms 를 미리 당겨 써서 순서를 지킨다.
+ * SecureRandom 을 쓰지 않고, 스레드마다 재사용하는 buffer 에 쓴 뒤 String 하나만 만든다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.transaction-id.generator", havingValue = "time-ordered",
+        matchIfMissing = true)
+public class TimeOrderedTransactionIdGenerator implements TransactionIdGenerator {
+    private static final int SEQUENCE_BITS = 16;
+    private static final int NODE_BITS = 16;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long RANDOM_MASK = (1L << (Long.SIZE - NODE_BITS)) - 1;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<byte[]> BUFFER =
+            ThreadLocal.withInitial(() -> new byte[LENGTH]);
+
+    // 발급 시각(ms) << SEQUENCE_BITS | 순번
+    private final AtomicLong lastTimestamp = new AtomicLong();
+    private final long node;
+
+    public TimeOrderedTransactionIdGenerator(
+            // 0 ~ 65535, 음수면 host 이름과 pid 로 정한다. (서버가 여러 대면 겹치지 않게 지정)
+            @Value("${account.transaction-id.node-id:-1}") int nodeId
+    ) {
+        this.node = nodeId >= 0 ? nodeId & NODE_MASK : defaultNode();
+        log.info("Transaction id node {}", node);
+    }
+
+    @Override
+    public String next() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long timestamp = lastTimestamp.accumulateAndGet(now, (last, current) -> Math.max(last + 1, current));
+        long low = node << (Long.SIZE - NODE_BITS)
+                | ThreadLocalRandom.current().nextLong() & RANDOM_MASK;
+
+        byte[] buffer = BUFFER.get();
+        writeHex(buffer, 0, timestamp);
+        writeHex(buffer, LENGTH / 2, low);
+        // ASCII 만 있으므로 compact string(LATIN1) 으로 복사 한 번에 만들어진다.
+        return new String(buffer, 0, LENGTH, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeHex(byte[] buffer, int offset, long value) {
+        for (int i = LENGTH / 2 - 1; i >= 0; i--) {
+            buffer[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static long defaultNode() {
+        // "pid@hostname"
+        return ManagementFactory.getRuntimeMXBean().getName().hashCode() & NODE_MASK;
+    }
+}
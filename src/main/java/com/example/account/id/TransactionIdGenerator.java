@@ -0,0 +1,12 @@
+package com.example.account.id;
+
+/**
+ * 거래 번호 발급기
+ * 외부에 보이는 형식은 32자리 소문자 16진수로 고정한다. (journal 기록, API 응답과 호환)
+ * account.transaction-id.generator 설정으로 구현체를 선택한다.
+ */
+public interface TransactionIdGenerator {
+    int LENGTH = 32;
+
+    String next();
+}
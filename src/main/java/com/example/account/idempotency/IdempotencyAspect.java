@@ -0,0 +1,109 @@
+package com.example.account.idempotency;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @Idempotent 메소드에 같은 Idempotency-Key 로 다시 들어온 요청을 처리
+ * 계좌 lock(LockAopAspect) 보다 먼저 실행되어, 중복 요청은 lock 과 DB 를 거치지 않는다.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class IdempotencyAspect {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Around("@annotation(com.example.account.aop.Idempotent) && args(request)")
+    public Object aroundMethod(ProceedingJoinPoint pjp, Object request) throws Throwable {
+        String idempotencyKey = getIdempotencyKey();
+        if (idempotencyKey == null) {
+            return pjp.proceed();
+        }
+
+        // 같은 key 를 다른 API 에서 쓰더라도 섞이지 않도록 메소드 이름을 붙인다.
+        String key = pjp.getSignature().getName() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        Optional<IdempotencyRecord> existing = idempotencyStore.begin(key, fingerprint);
+        if (existing.isPresent()) {
+            Object response = replay(idempotencyKey, fingerprint, existing.get());
+            return isAsync(pjp) ? CompletableFuture.completedFuture(response) : response;
+        }
+
+        Object response;
+        try {
+            response = pjp.proceed();
+        } catch (Throwable e) {
+            idempotencyStore.abort(key);
+            throw e;
+        }
+
+        // 비동기 응답은 작업이 끝난 뒤의 결과를 기록한다.
+        if (response instanceof CompletableFuture) {
+            return ((CompletableFuture<?>) response).whenComplete((result, e) -> {
+                if (e == null) {
+                    idempotencyStore.complete(key, fingerprint, result);
+                } else {
+                    idempotencyStore.abort(key);
+                }
+            });
+        }
+        idempotencyStore.complete(key, fingerprint, response);
+        return response;
+    }
+
+    private static boolean isAsync(ProceedingJoinPoint pjp) {
+        return pjp.getSignature() instanceof MethodSignature
+                && CompletableFuture.class.isAssignableFrom(
+                ((MethodSignature) pjp.getSignature()).getReturnType());
+    }
+
+    private Object replay(String idempotencyKey, String fingerprint, IdempotencyRecord record) {
+        if (!Objects.equals(record.getFingerprint(), fingerprint)) {
+            throw new AccountException(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+        }
+        if (!record.isCompleted()) {
+            throw new AccountException(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS);
+        }
+        log.info("Replay response for Idempotency-Key {}", idempotencyKey);
+        return record.getResponse();
+    }
+
+    private static String getIdempotencyKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        String key = ((ServletRequestAttributes) attributes).getRequest()
+                .getHeader(IDEMPOTENCY_KEY_HEADER);
+
+        return key == null || key.isBlank() ? null : key;
+    }
+
+    private String fingerprint(Object request) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(request);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.account.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Idempotency-Key 로 처리한 요청의 기록
+ * 처리 중에는 response 가 비어 있고, 처리가 끝나면 응답을 담는다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    // 같은 key 로 다른 요청이 들어온 것인지 구분하기 위한 요청 내용
+    private String fingerprint;
+    private boolean completed;
+    private Object response;
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, false, null);
+    }
+
+    public static IdempotencyRecord completed(String fingerprint, Object response) {
+        return new IdempotencyRecord(fingerprint, true, response);
+    }
+}
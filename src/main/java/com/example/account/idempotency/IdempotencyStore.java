@@ -0,0 +1,121 @@
+package com.example.account.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.JsonJacksonCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency-Key 기록 저장소
+ * 서버 내부 캐시(Caffeine)를 먼저 보고, Redis 를 쓰는 경우 서버 간에도 공유한다.
+ * Redis 장애 시에는 서버 내부 캐시만으로 계속 처리한다.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+    private static final String KEY_PREFIX = "IDEM:";
+
+    private final Cache<String, IdempotencyRecord> localCache;
+    private final RedissonClient redissonClient;
+    private final JsonJacksonCodec codec;
+    private final long ttlSeconds;
+    private final long inProgressTtlSeconds;
+
+    public IdempotencyStore(
+            ObjectProvider<RedissonClient> redissonClient,
+            ObjectMapper objectMapper,
+            @Value("${account.idempotency.ttl-seconds:86400}") long ttlSeconds,
+            @Value("${account.idempotency.in-progress-ttl-seconds:30}") long inProgressTtlSeconds,
+            @Value("${account.idempotency.local.max-size:100000}") long localMaxSize,
+            @Value("${account.idempotency.local.ttl-seconds:600}") long localTtlSeconds
+    ) {
+        this.redissonClient = redissonClient.getIfAvailable();
+        // 응답 타입 정보를 함께 저장해야 하므로 Spring ObjectMapper 복사본에 타입 정보를 켠다.
+        this.codec = new JsonJacksonCodec(objectMapper.copy());
+        this.ttlSeconds = ttlSeconds;
+        this.inProgressTtlSeconds = inProgressTtlSeconds;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+    }
+
+    /**
+     * 처음 보는 key 이면 처리 중으로 기록하고 empty 를 돌려준다.
+     * 이미 있는 key 이면 기존 기록(처리 중 또는 완료)을 돌려준다.
+     */
+    public Optional<IdempotencyRecord> begin(String key, String fingerprint) {
+        IdempotencyRecord inProgress = IdempotencyRecord.inProgress(fingerprint);
+        IdempotencyRecord local = localCache.asMap().putIfAbsent(key, inProgress);
+        if (local != null) {
+            return Optional.of(local);
+        }
+        if (redissonClient == null) {
+            return Optional.empty();
+        }
+
+        try {
+            RBucket<IdempotencyRecord> bucket = bucket(key);
+            // 처리 중 기록은 서버가 중간에 죽어도 오래 남지 않도록 짧게 유지
+            if (bucket.trySet(inProgress, inProgressTtlSeconds, TimeUnit.SECONDS)) {
+                return Optional.empty();
+            }
+            IdempotencyRecord remote = bucket.get();
+            if (remote == null) {
+                // 그 사이 만료된 경우 이번 요청이 처리한다.
+                return Optional.empty();
+            }
+            if (remote.isCompleted()) {
+                localCache.put(key, remote);
+            } else {
+                localCache.invalidate(key);
+            }
+            return Optional.of(remote);
+        } catch (RuntimeException e) {
+            log.warn("Redis unavailable for idempotency key, use local cache only", e);
+            return Optional.empty();
+        }
+    }
+
+    public void complete(String key, String fingerprint, Object response) {
+        IdempotencyRecord completed = IdempotencyRecord.completed(fingerprint, response);
+        localCache.put(key, completed);
+        if (redissonClient == null) {
+            return;
+        }
+        try {
+            bucket(key).set(completed, ttlSeconds, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            log.warn("Failed to store idempotency record in Redis", e);
+        }
+    }
+
+    /**
+     * 처리에 실패한 요청은 기록을 지워서 같은 key 로 다시 시도할 수 있게 한다.
+     */
+    public void abort(String key) {
+        localCache.invalidate(key);
+        if (redissonClient == null) {
+            return;
+        }
+        try {
+            bucket(key).delete();
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete idempotency record in Redis", e);
+        }
+    }
+
+    private RBucket<IdempotencyRecord> bucket(String key) {
+        return redissonClient.getBucket(KEY_PREFIX + key, codec);
+    }
+}
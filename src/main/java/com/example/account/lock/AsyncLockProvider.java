@@ -0,0 +1,19 @@
+package com.example.account.lock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스레드 대신 ownerId 를 소유자로 하는 비동기 lock
+ * LockProvider 구현체 중 지원하는 것만 함께 구현하며, lock 을 기다리는 동안 스레드를 붙잡지 않는다.
+ */
+public interface AsyncLockProvider {
+
+    /**
+     * @param ownerId 같은 ownerId 로 unlockAsync 를 호출해야 풀린다.
+     */
+    CompletableFuture<Boolean> tryLockAsync(String key, long waitTime, long leaseTime,
+                                            TimeUnit unit, long ownerId);
+
+    CompletableFuture<Void> unlockAsync(String key, long ownerId);
+}
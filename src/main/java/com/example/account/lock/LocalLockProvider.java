@@ -0,0 +1,70 @@
+package com.example.account.lock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 서버 한 대로 운영할 때 쓰는 JVM 내부 lock
+ * lock 은 항상 finally 에서 풀리므로 lease 시간은 사용하지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "account.lock.provider", havingValue = "local")
+public class LocalLockProvider implements LockProvider {
+    private final ConcurrentHashMap<String, Entry> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        Entry entry = acquireEntry(key);
+        boolean isLock = false;
+        try {
+            isLock = entry.lock.tryLock(waitTime, unit);
+            return isLock;
+        } finally {
+            if (!isLock) {
+                releaseEntry(key, entry);
+            }
+        }
+    }
+
+    @Override
+    public void unlock(String key) {
+        Entry entry = locks.get(key);
+        if (entry == null || !entry.lock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("lock is not held by current thread: " + key);
+        }
+        entry.lock.unlock();
+        releaseEntry(key, entry);
+    }
+
+    private Entry acquireEntry(String key) {
+        while (true) {
+            Entry entry = locks.computeIfAbsent(key, k -> new Entry());
+            synchronized (entry) {
+                if (!entry.removed) {
+                    entry.users++;
+                    return entry;
+                }
+            }
+        }
+    }
+
+    private void releaseEntry(String key, Entry entry) {
+        synchronized (entry) {
+            if (--entry.users == 0) {
+                entry.removed = true;
+                locks.remove(key, entry);
+            }
+        }
+    }
+
+    private static class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+        private boolean removed;
+    }
+}
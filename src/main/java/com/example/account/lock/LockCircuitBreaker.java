@@ -0,0 +1,116 @@
+package com.example.account.lock;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * lock provider(Redis) 장애 감지용 circuit breaker
+ * CLOSED : 정상, 연속 실패가 threshold 에 도달하면 OPEN
+ * OPEN : provider 를 호출하지 않음, open-duration 이 지나면 HALF_OPEN
+ * HALF_OPEN : 한 요청만 provider 로 보내 보고 성공하면 CLOSED, 실패하면 다시 OPEN
+ */
+@Slf4j
+@Component
+public class LockCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long stateChangedAt = System.nanoTime();
+    private boolean probing;
+    private final long[] nanosInState = new long[State.values().length];
+
+    public LockCircuitBreaker(
+            @Value("${account.lock.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${account.lock.breaker.open-duration-ms:10000}") long openDurationMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+
+        Gauge.builder("account.lock.breaker.state", this, b -> b.getState().ordinal())
+                .description("0 : CLOSED, 1 : OPEN, 2 : HALF_OPEN")
+                .register(meterRegistry);
+        for (State s : State.values()) {
+            FunctionCounter.builder("account.lock.breaker.time", this, b -> b.secondsIn(s))
+                    .description("각 상태로 보낸 누적 시간(초)")
+                    .tag("state", s.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * provider 를 호출해도 되는지 확인
+     * false 이면 호출하지 말고 degraded 모드로 처리한다.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.nanoTime() - stateChangedAt >= openDurationNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN && !probing) {
+            probing = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probing = false;
+        if (state == State.HALF_OPEN
+                || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * provider 의 응답을 받지 못하고 끝난 호출(interrupt 등)
+     * 상태는 그대로 두고 HALF_OPEN probe 만 놓아 주어 다음 요청이 다시 probe 할 수 있게 한다.
+     */
+    public synchronized void releaseProbe() {
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(State next) {
+        long now = System.nanoTime();
+        nanosInState[state.ordinal()] += now - stateChangedAt;
+        log.warn("Lock circuit breaker {} -> {}", state, next);
+        state = next;
+        stateChangedAt = now;
+    }
+
+    private synchronized double secondsIn(State s) {
+        long nanos = nanosInState[s.ordinal()];
+        if (state == s) {
+            nanos += System.nanoTime() - stateChangedAt;
+        }
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.account.lock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌 lock 을 실제로 잡는 저장소
+ * account.lock.provider 설정으로 구현체를 선택한다.
+ */
+public interface LockProvider {
+
+    /**
+     * @param leaseTime 0 이하이면 만료 없이 잡고, 구현체가 지원하면 자동 연장(watchdog)한다.
+     */
+    boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException;
+
+    void unlock(String key);
+
+    /**
+     * 여러 key 를 전달된 순서대로 모두 잡는다. 하나라도 실패하면 잡은 것을 풀고 false.
+     * 호출하는 쪽은 교착 상태를 막기 위해 항상 같은 순서(정렬된 순서)로 key 를 넘긴다.
+     */
+    default boolean tryLockAll(List<String> keys, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        long leaseNanos = leaseTime > 0 ? unit.toNanos(leaseTime) : leaseTime;
+        List<String> acquired = new ArrayList<>(keys.size());
+        boolean success = false;
+        try {
+            for (String key : keys) {
+                long remaining = Math.max(0L, deadline - System.nanoTime());
+                if (!tryLock(key, remaining, leaseNanos, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                acquired.add(key);
+            }
+            success = true;
+            return true;
+        } finally {
+            if (!success) {
+                for (int i = acquired.size() - 1; i >= 0; i--) {
+                    unlock(acquired.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.account.lock;
+
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.lock.provider", havingValue = "redisson", matchIfMissing = true)
+public class RedissonLockProvider implements LockProvider, AsyncLockProvider {
+    private final RedissonClient redissonClient;
+
+    @Override
+    public boolean tryLock(String key, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        RLock lock = redissonClient.getLock(key);
+
+        return leaseTime > 0
+                ? lock.tryLock(waitTime, leaseTime, unit)
+                : lock.tryLock(waitTime, unit);
+    }
+
+    @Override
+    public boolean tryLockAll(List<String> keys, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        RLock[] locks = new RLock[keys.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = redissonClient.getLock(keys.get(i));
+        }
+        // 모든 lock 을 잡거나, 실패하면 잡은 것을 모두 풀어주는 Redisson multi lock
+        RLock multiLock = redissonClient.getMultiLock(locks);
+
+        return leaseTime > 0
+                ? multiLock.tryLock(waitTime, leaseTime, unit)
+                : multiLock.tryLock(waitTime, unit);
+    }
+
+    @Override
+    public void unlock(String key) {
+        redissonClient.getLock(key).unlock();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String key, long waitTime, long leaseTime,
+                                                   TimeUnit unit, long ownerId) {
+        // leaseTime 이 -1 이면 watchdog 이 ownerId 기준으로 lock 을 연장한다.
+        return redissonClient.getLock(key)
+                .tryLockAsync(waitTime, leaseTime > 0 ? leaseTime : -1L, unit, ownerId)
+                .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String key, long ownerId) {
+        return redissonClient.getLock(key).unlockAsync(ownerId).toCompletableFuture();
+    }
+}
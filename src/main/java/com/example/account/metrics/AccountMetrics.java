@@ -0,0 +1,66 @@
+package com.example.account.metrics;
+
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 기록하는 lock / 오류 지표
+ * meter 는 기동 시 모두 등록해 두고, 기록할 때는 tag 나 builder 를 만들지 않는다.
+ * account.lock.acquire 의 p99 가 lock 대기 시간(@AccountLock tryLockTime)에 가까워지면
+ * ACCOUNT_TRANSACTION_LOCK 이 나기 전에 경합을 알 수 있다.
+ */
+@Component
+public class AccountMetrics {
+    private final Timer lockAcquired;
+    private final Timer lockTimeout;
+    private final Timer lockUnavailable;
+    private final Timer lockHeld;
+    private final Map<ErrorCode, Counter> errorCounters = new EnumMap<>(ErrorCode.class);
+
+    public AccountMetrics(MeterRegistry meterRegistry) {
+        this.lockAcquired = lockAcquireTimer(meterRegistry, "acquired");
+        this.lockTimeout = lockAcquireTimer(meterRegistry, "timeout");
+        this.lockUnavailable = lockAcquireTimer(meterRegistry, "unavailable");
+        this.lockHeld = Timer.builder("account.lock.held")
+                .description("분산 lock 을 잡고 있던 시간 (거래 처리 시간)")
+                .register(meterRegistry);
+        // 한 번도 나지 않은 오류도 0 으로 보여야 증가율로 경보를 걸 수 있다.
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            errorCounters.put(errorCode, Counter.builder("account.errors")
+                    .description("응답한 오류 수")
+                    .tag("code", errorCode.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Timer lockAcquireTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("account.lock.acquire")
+                .description("분산 lock 을 잡기까지 기다린 시간")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public void lockAcquired(long startedAt) {
+        lockAcquired.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void lockFailed(long startedAt, ErrorCode errorCode) {
+        Timer timer = errorCode == ErrorCode.LOCK_SERVICE_UNAVAILABLE ? lockUnavailable : lockTimeout;
+        timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void lockHeld(long lockedAt) {
+        lockHeld.record(System.nanoTime() - lockedAt, TimeUnit.NANOSECONDS);
+    }
+
+    public void error(ErrorCode errorCode) {
+        errorCounters.get(errorCode).increment();
+    }
+}
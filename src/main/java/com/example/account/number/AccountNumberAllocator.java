@@ -0,0 +1,47 @@
+package com.example.account.number;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 계좌 번호 발급기
+ * block 단위로 번호를 예약해 두고 메모리에서 하나씩 나눠준다.
+ * 계좌 생성마다 마지막 계좌를 조회하지 않고, 동시에 생성해도 번호가 겹치지 않는다.
+ * (서버 재시작 시 쓰지 않은 번호는 건너뛴다)
+ */
+@Slf4j
+@Component
+public class AccountNumberAllocator {
+    public static final long FIRST_ACCOUNT_NUMBER = 1_000_000_000L;
+    // DeleteAccount.Request 등에서 검증하는 10자리 계좌 번호의 최대값
+    private static final long LAST_ACCOUNT_NUMBER = 9_999_999_999L;
+
+    private final AccountNumberBlockSource blockSource;
+    private final int blockSize;
+
+    private long next;
+    private long limit;
+
+    public AccountNumberAllocator(
+            AccountNumberBlockSource blockSource,
+            @Value("${account.number.block-size:1000}") int blockSize
+    ) {
+        this.blockSource = blockSource;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized String next() {
+        if (next >= limit) {
+            long start = blockSource.reserveBlock(blockSize);
+            log.debug("Reserved account number block [{}, {})", start, start + blockSize);
+            next = start;
+            limit = start + blockSize;
+        }
+        if (next < FIRST_ACCOUNT_NUMBER || next > LAST_ACCOUNT_NUMBER) {
+            throw new IllegalStateException("account number out of 10-digit range : " + next);
+        }
+
+        return Long.toString(next++);
+    }
+}
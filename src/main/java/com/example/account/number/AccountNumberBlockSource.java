@@ -0,0 +1,12 @@
+package com.example.account.number;
+
+/**
+ * 계좌 번호 묶음(block)을 예약해 주는 저장소
+ * 여러 서버가 동시에 예약해도 같은 번호가 나오지 않아야 한다.
+ */
+public interface AccountNumberBlockSource {
+    /**
+     * @return 예약된 block 의 첫 번호, [start, start + blockSize) 를 이 서버가 사용
+     */
+    long reserveBlock(int blockSize);
+}
@@ -0,0 +1,24 @@
+package com.example.account.number;
+
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis INCRBY 로 block 예약
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.number.source", havingValue = "redis")
+public class RedisAccountNumberBlockSource implements AccountNumberBlockSource {
+    private static final String KEY = "ACNO:seq";
+
+    private final RedissonClient redissonClient;
+
+    @Override
+    public long reserveBlock(int blockSize) {
+        long end = redissonClient.getAtomicLong(KEY).addAndGet(blockSize);
+        return AccountNumberAllocator.FIRST_ACCOUNT_NUMBER + end - blockSize;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.account.number;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * DB sequence 로 block 예약
+ * sequence(1 부터 1 씩 증가, data.sql 의 account_number_seq)는 block 번호이고,
+ * block 의 첫 계좌 번호는 FIRST_ACCOUNT_NUMBER + (block 번호 - 1) * blockSize 로 계산한다.
+ * (block-size 를 줄이면 이미 쓴 번호와 겹칠 수 있으므로 늘리기만 한다)
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.number.source", havingValue = "sequence", matchIfMissing = true)
+public class SequenceAccountNumberBlockSource implements AccountNumberBlockSource {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${account.number.sequence-query:select next value for account_number_seq}")
+    private String sequenceQuery;
+
+    @Override
+    public long reserveBlock(int blockSize) {
+        Long block = jdbcTemplate.queryForObject(sequenceQuery, Long.class);
+        if (block == null || block < 1) {
+            throw new IllegalStateException("account number sequence returned " + block);
+        }
+        return AccountNumberAllocator.FIRST_ACCOUNT_NUMBER + (block - 1) * blockSize;
+    }
+}
@@ -3,13 +3,59 @@ package com.example.account.repository;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+        // export 시 DB 에서 한 번에 가져오는 행 수, persistence context 도 이 단위로 비운다.
+        int EXPORT_FETCH_SIZE = 500;
+
         Optional<Transaction> findByTransactionId(String transactionId);
+
+        // journal 을 다시 반영할 때 이미 저장된 거래를 건너뛰기 위해 사용
+        @Query("select t.transactionId from Transaction t where t.transactionId in :transactionIds")
+        List<String> findTransactionIdsIn(@Param("transactionIds") Collection<String> transactionIds);
+
+        // 거래 내역 첫 페이지 (최신순), idx_transaction_account_history 인덱스를 그대로 따라 읽는다.
+        @Query("select t from Transaction t where t.account.id = :accountId"
+                + " order by t.transactedAt desc, t.id desc")
+        List<Transaction> findHistory(@Param("accountId") long accountId, Pageable pageable);
+
+        // cursor 다음 페이지 : OFFSET 없이 마지막 위치부터 이어서 읽으므로 깊은 페이지도 비용이 같다.
+        @Query("select t from Transaction t where t.account.id = :accountId"
+                + " and (t.transactedAt < :transactedAt"
+                + " or (t.transactedAt = :transactedAt and t.id < :id))"
+                + " order by t.transactedAt desc, t.id desc")
+        List<Transaction> findHistoryBefore(@Param("accountId") long accountId,
+                                            @Param("transactedAt") LocalDateTime transactedAt,
+                                            @Param("id") long id,
+                                            Pageable pageable);
+
+        // 기간 내 거래를 앞으로만 읽는 cursor 로 조회 (트랜잭션 안에서 사용 후 반드시 close)
+        @QueryHints({
+                @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+                @QueryHint(name = HINT_READONLY, value = "true"),
+                @QueryHint(name = HINT_CACHEABLE, value = "false")
+        })
+        @Query("select t from Transaction t join fetch t.account a join fetch a.accountUser"
+                + " where t.transactedAt >= :from and t.transactedAt < :to"
+                + " order by t.transactedAt, t.id")
+        Stream<Transaction> streamByTransactedAt(@Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,88 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.fault.FaultInjector;
+import com.example.account.metrics.AccountMetrics;
+import com.example.account.service.OptimisticRetryExecutor.Attempt;
+import com.example.account.type.FaultPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 동시성 모드에 맞게 계좌를 잠그고 작업을 실행
+ * LockAopAspect 와 @AccountLock 을 쓸 수 없는 곳(대량 처리 등)에서 함께 사용한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountLockTemplate {
+    private final LocalLockService localLockService;
+    private final LockService lockService;
+    private final ConcurrencyProperties concurrencyProperties;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final FaultInjector faultInjector;
+    private final AccountMetrics accountMetrics;
+
+    public Object execute(String accountNumber, LockPolicy policy, Attempt attempt)
+            throws Throwable {
+        // PESSIMISTIC 모드는 DB row lock 을 쓰므로 분산 lock 을 잡지 않는다.
+        // IN_MEMORY 모드는 계좌별 shard 스레드가 순서대로 처리하므로 lock 이 필요 없다.
+        if (concurrencyProperties.isPessimistic() || concurrencyProperties.isInMemory()) {
+            return attempt.run();
+        }
+        // OPTIMISTIC 모드는 lock 없이 version 충돌 시 다시 실행한다.
+        if (concurrencyProperties.isOptimistic()) {
+            return optimisticRetryExecutor.execute(attempt);
+        }
+
+        long startedAt = System.nanoTime();
+
+        // 같은 서버 안의 경쟁은 local lock 에서 먼저 대기
+        localLockService.lock(accountNumber, policy);
+        try {
+            faultInjector.inject(FaultPoint.LOCK_ACQUIRE);
+            //lock 취득 시도
+            lockService.lock(accountNumber, policy, policy.remainingWaitTime(startedAt));
+            long lockedAt = System.nanoTime();
+            try {
+                return attempt.run();
+            } finally {
+                accountMetrics.lockHeld(lockedAt);
+                // lock 해제
+                lockService.unlock(accountNumber);
+            }
+        } finally {
+            localLockService.unlock(accountNumber);
+        }
+    }
+
+    public Object executeAll(List<String> accountNumbers, LockPolicy policy, Attempt attempt)
+            throws Throwable {
+        if (concurrencyProperties.isPessimistic() || concurrencyProperties.isInMemory()) {
+            return attempt.run();
+        }
+        if (concurrencyProperties.isOptimistic()) {
+            return optimisticRetryExecutor.execute(attempt);
+        }
+
+        long startedAt = System.nanoTime();
+
+        // 여러 계좌는 항상 계좌 번호 순서로 잠가서 교착 상태를 막는다.
+        localLockService.lockAll(accountNumbers, policy);
+        try {
+            faultInjector.inject(FaultPoint.LOCK_ACQUIRE);
+            lockService.lockAll(accountNumbers, policy, policy.remainingWaitTime(startedAt));
+            long lockedAt = System.nanoTime();
+            try {
+                return attempt.run();
+            } finally {
+                accountMetrics.lockHeld(lockedAt);
+                lockService.unlockAll(accountNumbers);
+            }
+        } finally {
+            localLockService.unlockAll(accountNumbers);
+        }
+    }
+}
@@ -3,10 +3,13 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
+import com.example.account.engine.BalanceEngine;
 import com.example.account.exception.AccountException;
+import com.example.account.number.AccountNumberAllocator;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -25,12 +28,15 @@ import static com.example.account.type.ErrorCode.USER_NOT_FOUND;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final BalanceEngine balanceEngine;
 
     /**
      * 사용자 유무 조회
      * 계좌 번호 생성
      * 계좌 저장, 정보 넘김
      */
+    @Timed
     @Transactional
     public AccountDto createAccount(Long userId, Long initialBalance) {
         // 값이 없으면 throw를 발생
@@ -38,9 +44,7 @@ public class AccountService {
 
         validateCreateAccount(accountUser);
 
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> (Integer.parseInt(account.getAccountNumber())) + 1 + "")
-                .orElse("1000000000");
+        String newAccountNumber = accountNumberAllocator.next();
 
         Account account = accountRepository.save(Account.builder().accountUser(accountUser)
                 .accountNumber(newAccountNumber).accountStatus(IN_USE)
@@ -71,11 +75,18 @@ public class AccountService {
         return accountRepository.findById(id).get();
     }
 
+    @Timed
     @Transactional
     public AccountDto deleteAccount(Long userId, String accountNumber) {
         // 사용자 유무 확인
         AccountUser accountUser = getAccountUser(userId);
 
+        // IN_MEMORY 모드는 메모리 잔액이 DB 에 모두 저장된 뒤 DB 의 계좌로 확인
+        // 해지 트랜잭션이 끝날 때까지 BalanceEngine 은 이 계좌의 거래를 받지 않는다.
+        if (balanceEngine.isEnabled()) {
+            balanceEngine.closeAccount(accountNumber);
+        }
+
         // 계좌 유무 확인
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND)); // 값이 없으면 throw를 발생
@@ -111,6 +122,7 @@ public class AccountService {
 
     }
 
+    @Timed
     @Transactional
     public List<AccountDto> getAccountsByUserId(Long userId) {
         AccountUser accountUser = getAccountUser(userId);
@@ -118,7 +130,11 @@ public class AccountService {
         List<Account> account = accountRepository.findByAccountUser(accountUser);
 
 
-        return account.stream().map(AccountDto::fromEntity)
+        List<AccountDto> accountDtos = account.stream().map(AccountDto::fromEntity)
                 .collect(Collectors.toList());
+        // IN_MEMORY 모드는 DB 에 아직 저장되지 않은 최신 잔액을 보여준다.
+        accountDtos.forEach(accountDto -> balanceEngine.getBalance(accountDto.getAccountNumber())
+                .ifPresent(accountDto::setBalance));
+        return accountDtos;
     }
 }
@@ -0,0 +1,92 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.metrics.AccountMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * AccountLockTemplate 의 비동기 버전
+ * Redisson 비동기 lock 으로 기다리므로 lock 대기 중에는 어떤 스레드도 사용하지 않고,
+ * lock 을 잡은 뒤의 작업만 transactionExecutor 에서 실행한다.
+ * 비동기 lock 을 쓸 수 없는 경우(local provider, pessimistic/optimistic/in-memory 모드)에는
+ * 기존 AccountLockTemplate 을 transactionExecutor 에서 실행해 요청 스레드만 돌려준다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.async.enabled", havingValue = "true")
+public class AsyncAccountLockTemplate {
+    // Redisson lock 소유자 id, 실제 thread id(양수)와 겹치지 않도록 음수를 쓴다.
+    private static final AtomicLong OWNER_IDS = new AtomicLong();
+
+    private final AccountLockTemplate accountLockTemplate;
+    private final LockService lockService;
+    private final ConcurrencyProperties concurrencyProperties;
+    private final ExecutorService transactionExecutor;
+    private final AccountMetrics accountMetrics;
+
+    public AsyncAccountLockTemplate(
+            AccountLockTemplate accountLockTemplate,
+            LockService lockService,
+            ConcurrencyProperties concurrencyProperties,
+            @Qualifier("transactionExecutor") ExecutorService transactionExecutor,
+            AccountMetrics accountMetrics
+    ) {
+        this.accountLockTemplate = accountLockTemplate;
+        this.lockService = lockService;
+        this.concurrencyProperties = concurrencyProperties;
+        this.transactionExecutor = transactionExecutor;
+        this.accountMetrics = accountMetrics;
+    }
+
+    public <T> CompletableFuture<T> execute(String accountNumber, LockPolicy policy,
+                                            Supplier<T> work) {
+        if (concurrencyProperties.isPessimistic() || concurrencyProperties.isOptimistic()
+                || concurrencyProperties.isInMemory() || !lockService.supportsAsync()) {
+            return CompletableFuture.supplyAsync(
+                    () -> executeBlocking(accountNumber, policy, work), transactionExecutor);
+        }
+
+        long ownerId = -OWNER_IDS.incrementAndGet();
+        return lockService.lockAsync(accountNumber, policy, ownerId)
+                .thenCompose(locked -> {
+                    long lockedAt = System.nanoTime();
+                    CompletableFuture<T> future;
+                    try {
+                        future = CompletableFuture.supplyAsync(work, transactionExecutor);
+                    } catch (RejectedExecutionException e) {
+                        // 작업을 넘기지 못해도 잡은 lock 은 풀어야 한다.
+                        unlock(accountNumber, ownerId, lockedAt);
+                        throw e;
+                    }
+                    return future.whenComplete(
+                            (result, e) -> unlock(accountNumber, ownerId, lockedAt));
+                });
+    }
+
+    private void unlock(String accountNumber, long ownerId, long lockedAt) {
+        accountMetrics.lockHeld(lockedAt);
+        lockService.unlockAsync(accountNumber, ownerId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T executeBlocking(String accountNumber, LockPolicy policy, Supplier<T> work) {
+        try {
+            return (T) accountLockTemplate.execute(accountNumber, policy, work::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicies;
+import com.example.account.dto.BulkUseBalance;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.engine.BalanceEngine;
+import com.example.account.exception.AccountException;
+import com.example.account.failure.FailedTransactionQueue;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.F;
+
+/**
+ * 여러 건의 잔액 사용을 계좌별로 묶어서 처리
+ * 계좌마다 lock 을 한 번만 잡고, 한 트랜잭션에서 모든 항목을 반영한다.
+ * 결과는 요청 항목 순서대로 돌려준다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkTransactionService {
+    private final TransactionService transactionService;
+    private final AccountLockTemplate accountLockTemplate;
+    private final FailedTransactionQueue failedTransactionQueue;
+    private final BalanceEngine balanceEngine;
+
+    @Timed
+    public List<BulkUseBalance.Result> useBalances(List<UseBalance.Request> items) {
+        // 계좌 번호별로 요청 순서(index)를 모은다.
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            groups.computeIfAbsent(items.get(i).getAccountNumber(), key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        BulkUseBalance.Result[] results = new BulkUseBalance.Result[items.size()];
+        groups.forEach((accountNumber, indexes) -> {
+            List<UseBalance.Request> groupItems = indexes.stream()
+                    .map(items::get)
+                    .collect(Collectors.toList());
+
+            List<BulkUseBalance.Result> groupResults = useBalanceGroup(accountNumber, groupItems);
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = groupResults.get(i);
+            }
+        });
+
+        return Arrays.asList(results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BulkUseBalance.Result> useBalanceGroup(String accountNumber,
+                                                        List<UseBalance.Request> items) {
+        try {
+            if (balanceEngine.isEnabled()) {
+                return useBalanceGroupInMemory(accountNumber, items);
+            }
+            return (List<BulkUseBalance.Result>) accountLockTemplate.execute(
+                    accountNumber, LockPolicies.USE,
+                    () -> transactionService.useBalanceGroup(accountNumber, items));
+        } catch (AccountException e) {
+            log.error("Failed to use balance in bulk. accountNumber: {}", accountNumber);
+            return failAll(accountNumber, items, e.getErrorCode());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * IN_MEMORY 모드 : 항목별 실패 거래는 BalanceEngine 이 남기지 않으므로 대기열로 저장
+     */
+    private List<BulkUseBalance.Result> useBalanceGroupInMemory(String accountNumber,
+                                                                List<UseBalance.Request> items) {
+        List<BulkUseBalance.Result> results = balanceEngine.useBalanceGroup(accountNumber, items);
+        for (BulkUseBalance.Result result : results) {
+            if (result.getErrorCode() != null) {
+                failedTransactionQueue.enqueue(
+                        TransactionType.USE, accountNumber, result.getTransaction().getAmount());
+            }
+        }
+        return results;
+    }
+
+    private List<BulkUseBalance.Result> failAll(String accountNumber,
+                                                List<UseBalance.Request> items,
+                                                ErrorCode errorCode) {
+        return items.stream()
+                .map(item -> {
+                    // 계좌가 없으면 거래를 남길 곳이 없으므로 결과만 돌려준다.
+                    if (errorCode != ErrorCode.ACCOUNT_NOT_FOUND) {
+                        failedTransactionQueue.enqueue(
+                                TransactionType.USE, accountNumber, item.getAmount());
+                    }
+                    return BulkUseBalance.Result.fail(TransactionDto.builder()
+                            .accountNumber(accountNumber)
+                            .transactionType(TransactionType.USE)
+                            .transactionResultType(F)
+                            .amount(item.getAmount())
+                            .build(), errorCode);
+                })
+                .collect(Collectors.toList());
+    }
+}
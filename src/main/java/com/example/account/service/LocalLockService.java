@@ -0,0 +1,205 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 같은 서버(JVM) 안에서 계좌 번호 기준으로 잡는 1차 lock
+ * 계좌마다 FIFO 대기열을 두고, 대기열이 가득 차면 기다리지 않고 바로 거절한다.
+ * 대기열을 통과한 요청 하나만 Redis lock 을 시도한다.
+ */
+@Slf4j
+@Service
+public class LocalLockService {
+    private final ConcurrentHashMap<String, AccountQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger totalQueued = new AtomicInteger();
+
+    private static final int SPIN_TRIES = 100;
+
+    private final int maxDepth;
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+
+    public LocalLockService(
+            @Value("${account.lock.queue.max-depth:32}") int maxDepth,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxDepth = maxDepth;
+
+        Gauge.builder("account.lock.queue.depth", totalQueued, AtomicInteger::get)
+                .description("계좌 lock 대기열에 들어와 있는 요청 수 (lock 보유 요청 포함)")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("account.lock.queue.wait")
+                .description("계좌 lock 대기열에서 기다린 시간")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("account.lock.queue.rejected")
+                .description("대기열이 가득 차서 바로 거절된 요청 수")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("account.lock.queue.timeout")
+                .description("대기 시간이 지나 거절된 요청 수")
+                .register(meterRegistry);
+    }
+
+    public void lock(String accountNumber, LockPolicy policy) {
+        lock(accountNumber, policy, System.nanoTime());
+    }
+
+    /**
+     * 여러 계좌를 계좌 번호 순서로 잠근다. 대기 시간은 전체가 함께 쓴다.
+     * 중간에 실패하면 이미 잡은 lock 을 풀고 예외를 던진다.
+     */
+    public void lockAll(List<String> accountNumbers, LockPolicy policy) {
+        List<String> sorted = sortedDistinct(accountNumbers);
+        long startedAt = System.nanoTime();
+        int locked = 0;
+        try {
+            for (String accountNumber : sorted) {
+                lock(accountNumber, policy, startedAt);
+                locked++;
+            }
+        } finally {
+            if (locked < sorted.size()) {
+                for (int i = locked - 1; i >= 0; i--) {
+                    unlock(sorted.get(i));
+                }
+            }
+        }
+    }
+
+    private void lock(String accountNumber, LockPolicy policy, long startedAt) {
+        log.debug("Trying local lock for accountNumber {}", accountNumber);
+        AccountQueue queue = enqueue(accountNumber);
+
+        long waitStartedAt = System.nanoTime();
+        boolean isLock = false;
+        try {
+            isLock = tryLock(queue.lock, policy, startedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitTimer.record(System.nanoTime() - waitStartedAt, TimeUnit.NANOSECONDS);
+            if (!isLock) {
+                dequeue(accountNumber, queue);
+            }
+        }
+
+        if (!isLock) {
+            log.error("======Local lock acquisition Failed======");
+            timeoutCounter.increment();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    private static boolean tryLock(ReentrantLock lock, LockPolicy policy, long startedAt)
+            throws InterruptedException {
+        switch (policy.getStrategy()) {
+            case FAIL_FAST:
+                return lock.tryLock();
+            case SPIN_THEN_PARK:
+                // 짧은 거래가 곧 끝날 것을 기대하고 잠깐 spin 후 대기열로 들어간다.
+                for (int i = 0; i < SPIN_TRIES; i++) {
+                    if (lock.tryLock()) {
+                        return true;
+                    }
+                    Thread.onSpinWait();
+                }
+                return lock.tryLock(policy.remainingWaitTime(startedAt), TimeUnit.MILLISECONDS);
+            case QUEUE:
+            default:
+                return lock.tryLock(policy.remainingWaitTime(startedAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void unlock(String accountNumber) {
+        AccountQueue queue = queues.get(accountNumber);
+        if (queue == null || !queue.lock.isHeldByCurrentThread()) {
+            return;
+        }
+        queue.lock.unlock();
+        dequeue(accountNumber, queue);
+    }
+
+    public void unlockAll(List<String> accountNumbers) {
+        List<String> sorted = sortedDistinct(accountNumbers);
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            unlock(sorted.get(i));
+        }
+    }
+
+    private static List<String> sortedDistinct(List<String> accountNumbers) {
+        return accountNumbers.stream().distinct().sorted().collect(Collectors.toList());
+    }
+
+    public int getQueueDepth(String accountNumber) {
+        AccountQueue queue = queues.get(accountNumber);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.depth;
+        }
+    }
+
+    public int getTotalQueueDepth() {
+        return totalQueued.get();
+    }
+
+    private AccountQueue enqueue(String accountNumber) {
+        while (true) {
+            AccountQueue queue = queues.computeIfAbsent(accountNumber, key -> new AccountQueue());
+            synchronized (queue) {
+                // 방금 비워져서 map 에서 빠진 대기열이면 새로 만든다.
+                if (queue.removed) {
+                    continue;
+                }
+                if (queue.depth >= maxDepth) {
+                    rejectedCounter.increment();
+                    log.error("======Lock queue is full for accountNumber {}======", accountNumber);
+                    throw new AccountException(ErrorCode.ACCOUNT_LOCK_QUEUE_FULL);
+                }
+                queue.depth++;
+            }
+            totalQueued.incrementAndGet();
+            return queue;
+        }
+    }
+
+    private void dequeue(String accountNumber, AccountQueue queue) {
+        synchronized (queue) {
+            if (--queue.depth == 0) {
+                queue.removed = true;
+                queues.remove(accountNumber, queue);
+            }
+        }
+        totalQueued.decrementAndGet();
+    }
+
+    private static class AccountQueue {
+        // 먼저 기다린 요청이 먼저 들어가도록 fair lock 사용
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int depth;
+        private boolean removed;
+    }
+}
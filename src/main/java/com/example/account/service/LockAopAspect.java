@@ -1,34 +1,56 @@
 package com.example.account.service;
 
 
+import com.example.account.aop.AccountLock;
 import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.aop.LockPolicy;
+import com.example.account.aop.MultiAccountLockIdInterface;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Aspect
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class LockAopAspect {
-    private final LockService lockService;
+    private final AccountLockTemplate accountLockTemplate;
+
+    // 메소드별 lock 정책은 처음 한 번만 읽어서 보관
+    private final Map<Method, LockPolicy> policies = new ConcurrentHashMap<>();
 
     @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
     public Object aroundMethod(
             ProceedingJoinPoint pjp,
             AccountLockIdInterface request
     ) throws Throwable {
-        //lock 취득 시도
-        lockService.lock(request.getAccountNumber());
-        try {
-            return pjp.proceed();
-        } finally {
-            // lock 해제
-            lockService.unlock(request.getAccountNumber());
-        }
+        return accountLockTemplate.execute(
+                request.getAccountNumber(), getPolicy(pjp), pjp::proceed);
+    }
+
+    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+    public Object aroundMultiAccountMethod(
+            ProceedingJoinPoint pjp,
+            MultiAccountLockIdInterface request
+    ) throws Throwable {
+        return accountLockTemplate.executeAll(
+                request.getAccountNumbers(), getPolicy(pjp), pjp::proceed);
+    }
+
+    private LockPolicy getPolicy(ProceedingJoinPoint pjp) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+
+        return policies.computeIfAbsent(method, m -> LockPolicy.from(
+                AnnotatedElementUtils.findMergedAnnotation(m, AccountLock.class)));
     }
 
 }
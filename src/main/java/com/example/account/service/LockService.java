@@ -1,43 +1,259 @@
 package com.example.account.service;
 
 
+import com.example.account.aop.LockPolicy;
 import com.example.account.exception.AccountException;
+import com.example.account.lock.AsyncLockProvider;
+import com.example.account.lock.LocalLockProvider;
+import com.example.account.lock.LockCircuitBreaker;
+import com.example.account.lock.LockProvider;
+import com.example.account.metrics.AccountMetrics;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.LockFallback;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LockService {
-    private final RedissonClient redissonClient;
+    private final LockProvider lockProvider;
+    private final LockCircuitBreaker lockCircuitBreaker;
+    private final AccountMetrics accountMetrics;
 
-    public void lock(String accountNumber) {
-        RLock lock = redissonClient.getLock(getLockKey(accountNumber));
+    // provider 장애 시 동작 (reject : 바로 거절, local : 서버 한 대일 때만 서버 내부 lock 으로 계속 처리)
+    // 서버가 여러 대면 서로 다른 서버가 같은 계좌 lock 을 잡을 수 있으므로 기본은 거절
+    @Value("${account.lock.fallback:reject}")
+    private LockFallback fallback = LockFallback.REJECT;
+
+    private final LocalLockProvider fallbackLockProvider = new LocalLockProvider();
+
+    // 어느 provider 로 잡은 lock 인지 기억해 두었다가 같은 곳에서 해제
+    private final Map<String, LockProvider> heldLocks = new ConcurrentHashMap<>();
+
+    public void lock(String accountNumber, LockPolicy policy, long waitTime) {
+        long startedAt = System.nanoTime();
+        try {
+            tryLock(accountNumber, policy, waitTime);
+            accountMetrics.lockAcquired(startedAt);
+        } catch (AccountException e) {
+            accountMetrics.lockFailed(startedAt, e.getErrorCode());
+            throw e;
+        }
+    }
+
+    private void tryLock(String accountNumber, LockPolicy policy, long waitTime) {
         log.debug("Trying lock for accountNumber {}", accountNumber);
+        String key = getLockKey(accountNumber);
+        // watchdog 을 쓰면 lease 없이 잡고 provider 가 만료 전에 계속 연장한다.
+        long leaseTime = getLeaseTime(policy);
+
+        if (!lockCircuitBreaker.allowRequest()) {
+            lockDegraded(List.of(key), waitTime, leaseTime);
+            return;
+        }
+
+        boolean isLock;
+        try {
+            isLock = lockProvider.tryLock(key, waitTime, leaseTime, TimeUnit.MILLISECONDS);
+            lockCircuitBreaker.recordSuccess();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lockCircuitBreaker.releaseProbe();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } catch (Exception e) {
+            log.error("Redis Lock Failed", e);
+            lockCircuitBreaker.recordFailure();
+            lockDegraded(List.of(key), waitTime, leaseTime);
+            return;
+        }
+
+        if (!isLock) {
+            log.error("======Lock acquisition Failed======");
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        heldLocks.put(key, lockProvider);
+    }
+
+    /**
+     * 여러 계좌를 한 번에 잠근다. 교착 상태를 막기 위해 계좌 번호 순서로 잡는다.
+     */
+    public void lockAll(List<String> accountNumbers, LockPolicy policy, long waitTime) {
+        long startedAt = System.nanoTime();
+        try {
+            tryLockAll(accountNumbers, policy, waitTime);
+            accountMetrics.lockAcquired(startedAt);
+        } catch (AccountException e) {
+            accountMetrics.lockFailed(startedAt, e.getErrorCode());
+            throw e;
+        }
+    }
+
+    private void tryLockAll(List<String> accountNumbers, LockPolicy policy, long waitTime) {
+        log.debug("Trying lock for accountNumbers {}", accountNumbers);
+        List<String> keys = getLockKeys(accountNumbers);
+        long leaseTime = getLeaseTime(policy);
 
+        if (!lockCircuitBreaker.allowRequest()) {
+            lockDegraded(keys, waitTime, leaseTime);
+            return;
+        }
+
+        boolean isLock;
         try {
-            boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
+            isLock = lockProvider.tryLockAll(keys, waitTime, leaseTime, TimeUnit.MILLISECONDS);
+            lockCircuitBreaker.recordSuccess();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lockCircuitBreaker.releaseProbe();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } catch (Exception e) {
+            log.error("Redis Lock Failed", e);
+            lockCircuitBreaker.recordFailure();
+            lockDegraded(keys, waitTime, leaseTime);
+            return;
+        }
+
+        if (!isLock) {
+            log.error("======Lock acquisition Failed======");
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        keys.forEach(key -> heldLocks.put(key, lockProvider));
+    }
+
+    public void unlock(String accountNumber){
+        log.debug("Unlock for accountNumber : {}", accountNumber);
+        unlockKey(getLockKey(accountNumber));
+    }
+
+    public void unlockAll(List<String> accountNumbers) {
+        log.debug("Unlock for accountNumbers : {}", accountNumbers);
+        List<String> keys = getLockKeys(accountNumbers);
+        // 잡은 순서의 역순으로 해제
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            unlockKey(keys.get(i));
+        }
+    }
+
+    private void unlockKey(String key) {
+        LockProvider provider = heldLocks.remove(key);
+        if (provider == null) {
+            return;
+        }
+
+        try {
+            provider.unlock(key);
+        } catch (Exception e) {
+            // 해제 실패로 거래 결과가 바뀌지 않도록 예외를 던지지 않는다.
+            // Redis lock 은 lease 시간이 지나면 풀린다.
+            log.error("Unlock Failed for key : {}", key, e);
+            if (provider == lockProvider) {
+                lockCircuitBreaker.recordFailure();
+            }
+        }
+    }
+
+    public boolean supportsAsync() {
+        return lockProvider instanceof AsyncLockProvider;
+    }
+
+    /**
+     * 스레드를 붙잡지 않고 lock 을 기다린다. lock 소유자는 스레드가 아니라 ownerId 이다.
+     * provider 장애 시 서버 내부 lock 은 스레드 기준이라 쓸 수 없으므로 바로 거절한다.
+     */
+    public CompletableFuture<Void> lockAsync(String accountNumber, LockPolicy policy, long ownerId) {
+        log.debug("Trying async lock for accountNumber {}", accountNumber);
+        AsyncLockProvider asyncLockProvider = asyncLockProvider();
+        long startedAt = System.nanoTime();
+        if (!lockCircuitBreaker.allowRequest()) {
+            accountMetrics.lockFailed(startedAt, ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+            return CompletableFuture.failedFuture(
+                    new AccountException(ErrorCode.LOCK_SERVICE_UNAVAILABLE));
+        }
+
+        CompletableFuture<Boolean> future;
+        try {
+            future = asyncLockProvider.tryLockAsync(getLockKey(accountNumber), policy.getWaitTime(),
+                    getLeaseTime(policy), TimeUnit.MILLISECONDS, ownerId);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.handle((isLock, e) -> {
+            if (e != null) {
+                log.error("Redis Lock Failed", e);
+                lockCircuitBreaker.recordFailure();
+                accountMetrics.lockFailed(startedAt, ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+                throw new AccountException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+            }
+            lockCircuitBreaker.recordSuccess();
             if (!isLock) {
                 log.error("======Lock acquisition Failed======");
+                accountMetrics.lockFailed(startedAt, ErrorCode.ACCOUNT_TRANSACTION_LOCK);
                 throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
             }
-        } catch (AccountException e){
-            throw e;
+            accountMetrics.lockAcquired(startedAt);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> unlockAsync(String accountNumber, long ownerId) {
+        log.debug("Async unlock for accountNumber : {}", accountNumber);
+        String key = getLockKey(accountNumber);
+
+        return asyncLockProvider().unlockAsync(key, ownerId).exceptionally(e -> {
+            // 동기 unlock 과 같이 예외를 던지지 않고, lease 시간이 지나면 풀린다.
+            log.error("Unlock Failed for key : {}", key, e);
+            lockCircuitBreaker.recordFailure();
+            return null;
+        });
+    }
+
+    private AsyncLockProvider asyncLockProvider() {
+        if (!supportsAsync()) {
+            throw new IllegalStateException("Async lock is not supported by " + lockProvider.getClass());
+        }
+        return (AsyncLockProvider) lockProvider;
+    }
+
+    private void lockDegraded(List<String> keys, long waitTime, long leaseTime) {
+        if (fallback == LockFallback.REJECT) {
+            throw new AccountException(ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+        }
+
+        log.warn("Lock provider unavailable, using local lock for {}", keys);
+        boolean isLock;
+        try {
+            isLock = fallbackLockProvider.tryLockAll(keys, waitTime, leaseTime, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
         }
-        catch (Exception e) {
-            log.error("Redis Lock Failed");
+        if (!isLock) {
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
         }
+        keys.forEach(key -> heldLocks.put(key, fallbackLockProvider));
     }
 
-    public void unlock(String accountNumber){
-        log.debug("Unlock for accountNumber : {}", accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
+    private static long getLeaseTime(LockPolicy policy) {
+        return policy.isWatchdog() ? -1L : policy.getLeaseTime();
+    }
+
+    private static List<String> getLockKeys(List<String> accountNumbers) {
+        return accountNumbers.stream()
+                .distinct()
+                .sorted()
+                .map(LockService::getLockKey)
+                .collect(Collectors.toList());
     }
 
     private static String getLockKey(String accountNumber) {
@@ -0,0 +1,85 @@
+package com.example.account.service;
+
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * OPTIMISTIC 모드에서 Account version 충돌이 나면 트랜잭션 전체를 다시 실행
+ * 매 시도는 새로운 트랜잭션이어야 하므로 @Transactional 메소드 바깥에서 호출한다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+    private final ConcurrencyProperties.Optimistic properties;
+
+    private final Counter attemptCounter;
+    private final Counter conflictCounter;
+    private final Counter exhaustedCounter;
+    private final DistributionSummary retrySummary;
+
+    public OptimisticRetryExecutor(ConcurrencyProperties concurrencyProperties,
+                                   MeterRegistry meterRegistry) {
+        this.properties = concurrencyProperties.getOptimistic();
+        this.attemptCounter = Counter.builder("account.optimistic.attempts")
+                .description("OPTIMISTIC 모드 거래 시도 수 (재시도 포함)")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("account.optimistic.conflicts")
+                .description("Account version 충돌 수")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("account.optimistic.exhausted")
+                .description("재시도 횟수를 모두 써서 실패한 거래 수")
+                .register(meterRegistry);
+        this.retrySummary = DistributionSummary.builder("account.optimistic.retries")
+                .description("거래 하나가 성공/실패하기까지 재시도한 횟수")
+                .register(meterRegistry);
+    }
+
+    public Object execute(Attempt attempt) throws Throwable {
+        long backoff = properties.getBackoffMillis();
+
+        for (int tries = 1; ; tries++) {
+            attemptCounter.increment();
+            try {
+                Object result = attempt.run();
+                retrySummary.record(tries - 1);
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                conflictCounter.increment();
+                if (tries >= properties.getMaxAttempts()) {
+                    exhaustedCounter.increment();
+                    retrySummary.record(tries - 1);
+                    log.error("======Optimistic retry exhausted after {} tries======", tries);
+                    throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_CONFLICT);
+                }
+            }
+
+            sleepWithJitter(backoff);
+            backoff = Math.min(backoff * 2, properties.getMaxBackoffMillis());
+        }
+    }
+
+    private static void sleepWithJitter(long backoff) {
+        // 같이 충돌한 요청들이 같은 시점에 다시 부딪히지 않도록 ±50% 흔든다.
+        long sleep = ThreadLocalRandom.current().nextLong(backoff / 2, backoff + backoff / 2 + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_CONFLICT);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Attempt {
+        Object run() throws Throwable;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.account.service;
+
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.example.account.repository.TransactionRepository.EXPORT_FETCH_SIZE;
+
+/**
+ * 기간 내 모든 거래를 NDJSON / CSV 로 내려받기
+ * 결과를 메모리에 모으지 않고 DB cursor 에서 읽는 대로 응답에 쓴다.
+ * persistence context 는 fetch size 단위로 비워서 힙 사용량을 일정하게 유지하고,
+ * DB 연결은 응답을 쓰는 동안에만 잡는다.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+    private static final String CSV_HEADER = "transactionId,accountNumber,transactionType,"
+            + "transactionResult,amount,balanceSnapShot,transactedAt";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionExportService(
+            TransactionRepository transactionRepository,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    /**
+     * @return 내보낸 거래 수
+     */
+    public long export(LocalDateTime from, LocalDateTime to, ExportFormat format,
+                       OutputStream outputStream) {
+        validateRange(from, to);
+
+        Long count = transactionTemplate.execute(status -> {
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try (Stream<Transaction> transactions =
+                         transactionRepository.streamByTransactedAt(from, to)) {
+                if (format == ExportFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                }
+
+                long written = 0;
+                Iterator<Transaction> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    TransactionDto transactionDto = TransactionDto.fromEntity(iterator.next());
+                    writer.write(format == ExportFormat.CSV
+                            ? toCsv(transactionDto)
+                            : objectMapper.writeValueAsString(transactionDto));
+                    writer.write('\n');
+
+                    if (++written % EXPORT_FETCH_SIZE == 0) {
+                        // 이미 쓴 엔티티는 더 필요 없으므로 비우고, 응답도 내보낸다.
+                        entityManager.clear();
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                return written;
+            } catch (IOException e) {
+                // 클라이언트가 연결을 끊은 경우 등
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Exported {} transactions from {} to {} as {}", count, from, to, format);
+        return count == null ? 0 : count;
+    }
+
+    // 모든 값이 숫자, enum, 시각, 영문/숫자 id 라서 따옴표 처리가 필요 없다.
+    private static String toCsv(TransactionDto transactionDto) {
+        return transactionDto.getTransactionId() + ","
+                + transactionDto.getAccountNumber() + ","
+                + transactionDto.getTransactionType() + ","
+                + transactionDto.getTransactionResultType() + ","
+                + transactionDto.getAmount() + ","
+                + transactionDto.getBalanceSnapShot() + ","
+                + transactionDto.getTransactedAt();
+    }
+}
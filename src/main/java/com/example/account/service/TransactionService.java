@@ -1,29 +1,50 @@
 package com.example.account.service;
 
+import com.example.account.cache.TransactionCache;
+import com.example.account.config.ConcurrencyProperties;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.BulkUseBalance;
+import com.example.account.dto.FailedTransaction;
+import com.example.account.dto.TransactionCursor;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.fault.FaultInjector;
+import com.example.account.id.TransactionIdGenerator;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.FaultPoint;
 import com.example.account.type.TransactionResultType;
 import com.example.account.type.TransactionType;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.example.account.type.TransactionResultType.F;
 import static com.example.account.type.TransactionResultType.S;
 import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.TRANSFER_IN;
+import static com.example.account.type.TransactionType.TRANSFER_OUT;
 import static com.example.account.type.TransactionType.USE;
 
 @Slf4j
@@ -33,15 +54,21 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
+    private final ConcurrencyProperties concurrencyProperties;
+    private final TransactionCache transactionCache;
+    private final FaultInjector faultInjector;
+    private final TransactionIdGenerator transactionIdGenerator;
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    @Timed
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
         // user 찾기
         AccountUser user = accountUserRepository.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
         // account 찾기
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        Account account = getAccountForUpdate(accountNumber);
 
         // 거래 가능 여부 확인
         validateUseBalance(user, account, amount);
@@ -53,6 +80,16 @@ public class TransactionService {
         return TransactionDto.fromEntity(transaction);
     }
 
+    private Account getAccountForUpdate(String accountNumber) {
+        faultInjector.inject(FaultPoint.DB_READ);
+        // PESSIMISTIC 모드에서는 분산 lock 대신 DB row lock 으로 잔액 변경을 직렬화
+        Optional<Account> account = concurrencyProperties.isPessimistic()
+                ? accountRepository.findByAccountNumberForUpdate(accountNumber)
+                : accountRepository.findByAccountNumber(accountNumber);
+
+        return account.orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    }
+
     private void validateUseBalance(AccountUser user, Account account, Long amount) {
         // 사용자와 계좌 아이디가 다른 경우
         if (!Objects.equals(account.getAccountUser().getId(), user.getId())) {
@@ -69,34 +106,114 @@ public class TransactionService {
 
     }
 
+    /**
+     * 한 계좌에 대한 여러 건의 잔액 사용을 한 트랜잭션에서 처리
+     * 계좌는 한 번만 조회하고, 항목별 실패는 F 거래로 남긴 뒤 다음 항목을 계속 처리한다.
+     * 거래 내역은 모아서 한 번에 저장한다. (JDBC batch insert)
+     */
+    @Timed
     @Transactional
-    public void saveFailedUseTransaction(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    public List<BulkUseBalance.Result> useBalanceGroup(String accountNumber,
+                                                       List<UseBalance.Request> items) {
+        Account account = getAccountForUpdate(accountNumber);
+        Map<Long, Optional<AccountUser>> users = new HashMap<>();
+
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        List<ErrorCode> errorCodes = new ArrayList<>(items.size());
+        for (UseBalance.Request item : items) {
+            try {
+                AccountUser user = users.computeIfAbsent(item.getUserId(),
+                                accountUserRepository::findById)
+                        .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+
+                validateUseBalance(user, account, item.getAmount());
 
-        saveAndGetTransaction(USE, F, amount, account);
+                account.useBalance(item.getAmount());
+                transactions.add(buildTransaction(USE, S, item.getAmount(), account));
+                errorCodes.add(null);
+            } catch (AccountException e) {
+                transactions.add(buildTransaction(USE, F, item.getAmount(), account));
+                errorCodes.add(e.getErrorCode());
+            }
+        }
+
+        faultInjector.inject(FaultPoint.DB_WRITE);
+        List<Transaction> saved = transactionRepository.saveAll(transactions);
 
+        List<BulkUseBalance.Result> results = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            TransactionDto transactionDto = TransactionDto.fromEntity(saved.get(i));
+            transactionCache.put(transactionDto);
+            results.add(new BulkUseBalance.Result(transactionDto, errorCodes.get(i)));
+        }
+        return results;
+    }
+
+    /**
+     * write-behind 대기열에 모인 실패 거래를 한 번에 저장
+     * 계좌는 한 번에 조회하고, 없는 계좌의 거래는 남길 곳이 없으므로 버린다.
+     */
+    @Transactional
+    public void saveFailedTransactions(List<FailedTransaction> failedTransactions) {
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(
+                        failedTransactions.stream()
+                                .map(FailedTransaction::getAccountNumber)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>(failedTransactions.size());
+        for (FailedTransaction failedTransaction : failedTransactions) {
+            Account account = accounts.get(failedTransaction.getAccountNumber());
+            if (account == null) {
+                log.warn("Drop failed transaction for unknown accountNumber {}",
+                        failedTransaction.getAccountNumber());
+                continue;
+            }
+            transactions.add(buildTransaction(failedTransaction.getTransactionType(), F,
+                    failedTransaction.getAmount(), account, failedTransaction.getTransactedAt()));
+        }
+
+        transactionRepository.saveAll(transactions);
     }
 
     private Transaction saveAndGetTransaction(TransactionType transactionType,
                                               TransactionResultType transactionResultType, Long amount, Account account) {
-        return transactionRepository.save(Transaction.builder()
+        faultInjector.inject(FaultPoint.DB_WRITE);
+        Transaction transaction = transactionRepository.save(
+                buildTransaction(transactionType, transactionResultType, amount, account));
+        // 결제 직후 거래 조회가 몰리므로 저장하면서 캐시도 채운다.
+        transactionCache.put(TransactionDto.fromEntity(transaction));
+
+        return transaction;
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType,
+                                         TransactionResultType transactionResultType, Long amount, Account account) {
+        return buildTransaction(transactionType, transactionResultType, amount, account,
+                LocalDateTime.now());
+    }
+
+    private Transaction buildTransaction(TransactionType transactionType,
+                                         TransactionResultType transactionResultType, Long amount,
+                                         Account account, LocalDateTime transactedAt) {
+        return Transaction.builder()
                 .transactionType(transactionType)
                 .transactionResultType(transactionResultType)
                 .account(account)
                 .amount(amount)
                 .balanceSnapShot(account.getBalance())
-                .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                .transactedAt(LocalDateTime.now())
-                .build());
+                .transactionId(transactionIdGenerator.next())
+                .transactedAt(transactedAt)
+                .build();
     }
 
+    @Timed
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
         Transaction transaction = transactionRepository.findByTransactionId(transactionId)
                 .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+        Account account = getAccountForUpdate(accountNumber);
 
         validateCancelBalance(transaction, account, amount);
 
@@ -125,19 +242,94 @@ public class TransactionService {
 
     }
 
+    /**
+     * 계좌 이체 : 출금 계좌와 입금 계좌를 한 트랜잭션에서 함께 변경
+     * 출금 계좌의 거래(TRANSFER_OUT)를 돌려준다.
+     */
+    @Timed
     @Transactional
-    public void saveFailedCancelTransaction(String accountNumber, Long amount) {
+    public TransactionDto transfer(Long userId, String fromAccountNumber,
+                                   String toAccountNumber, Long amount) {
+        // IN_MEMORY 모드는 잔액을 BalanceEngine 이 들고 있으므로 DB 로 이체하지 않는다.
+        if (concurrencyProperties.isInMemory()) {
+            throw new AccountException(ErrorCode.UNSUPPORTED_IN_CONCURRENCY_MODE);
+        }
+        if (Objects.equals(fromAccountNumber, toAccountNumber)) {
+            throw new AccountException(ErrorCode.TRANSFER_SAME_ACCOUNT);
+        }
+        AccountUser user = accountUserRepository.findById(userId)
+                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+
+        // row lock 을 쓰는 경우에도 교착 상태가 없도록 계좌 번호 순서로 조회
+        Account fromAccount;
+        Account toAccount;
+        if (fromAccountNumber.compareTo(toAccountNumber) < 0) {
+            fromAccount = getAccountForUpdate(fromAccountNumber);
+            toAccount = getAccountForUpdate(toAccountNumber);
+        } else {
+            toAccount = getAccountForUpdate(toAccountNumber);
+            fromAccount = getAccountForUpdate(fromAccountNumber);
+        }
+
+        validateUseBalance(user, fromAccount, amount);
+        // 입금 계좌가 해지 상태인 경우
+        if (toAccount.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+        fromAccount.useBalance(amount);
+        toAccount.depositBalance(amount);
+
+        Transaction transaction = saveAndGetTransaction(TRANSFER_OUT, S, amount, fromAccount);
+        saveAndGetTransaction(TRANSFER_IN, S, amount, toAccount);
+
+        return TransactionDto.fromEntity(transaction);
+    }
+
+    /**
+     * 계좌 거래 내역을 최신순으로 size 건씩 조회
+     * cursor 가 있으면 해당 위치 다음부터 읽는다. (keyset pagination)
+     */
+    @Timed
+    public TransactionHistory getTransactionHistory(String accountNumber, String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new AccountException(ErrorCode.INVALID_REQUEST);
+        }
         Account account = accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        saveAndGetTransaction(CANCEL, F, amount, account);
-    }
+        // 다음 페이지가 있는지 알기 위해 한 건 더 읽는다.
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Transaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findHistory(account.getId(), limit);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findHistoryBefore(account.getId(),
+                    position.getTransactedAt(), position.getId(), limit);
+        }
 
-    public TransactionDto queryTransaction(String transactionId) {
-        return TransactionDto.fromEntity(
-                transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+        boolean hasNext = transactions.size() > size;
+        List<Transaction> page = hasNext ? transactions.subList(0, size) : transactions;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new TransactionCursor(last.getTransactedAt(), last.getId()).encode();
+        }
 
+        return TransactionHistory.builder()
+                .transactions(page.stream()
+                        .map(TransactionDto::fromEntity)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
 
+    @Timed
+    public TransactionDto queryTransaction(String transactionId) {
+        return transactionCache.get(transactionId, id -> TransactionDto.fromEntity(
+                transactionRepository.findByTransactionId(id)
+                        .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND))));
     }
 }
@@ -0,0 +1,12 @@
+package com.example.account.type;
+
+public enum ConcurrencyMode {
+    // Redis(또는 local provider) 분산 lock 으로 계좌를 직렬화
+    DISTRIBUTED_LOCK,
+    // DB 의 SELECT ... FOR UPDATE 로 계좌 row 를 잠금
+    PESSIMISTIC,
+    // lock 없이 Account version 으로 충돌을 감지하고 재시도
+    OPTIMISTIC,
+    // 잔액을 메모리에서 계좌별 단일 스레드(shard)로 처리하고 DB 에는 모아서 저장 (BalanceEngine)
+    IN_MEMORY
+}
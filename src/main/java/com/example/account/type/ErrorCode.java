@@ -11,6 +11,9 @@ public enum ErrorCode {
     USER_NOT_FOUND("사용자가 없습니다."),
     ACCOUNT_NOT_FOUND("계좌가 없습니다."),
     ACCOUNT_TRANSACTION_LOCK("해당 계좌는 사용중 입니다."),
+    ACCOUNT_LOCK_QUEUE_FULL("해당 계좌에 대기 중인 거래가 너무 많습니다."),
+    LOCK_SERVICE_UNAVAILABLE("계좌 lock 서비스를 일시적으로 사용할 수 없습니다."),
+    ACCOUNT_TRANSACTION_CONFLICT("해당 계좌에 동시 거래가 많아 처리하지 못했습니다."),
     TRANSACTION_NOT_FOUND("해당 거래가 없습니다."),
     USER_ACCOUNT_UN_MATCH("사용자와 계좌의 소유주가 다릅니다."),
     CANCEL_MUST_FULLY("부분 취소는 허용되지 않습니다."),
@@ -19,6 +22,11 @@ public enum ErrorCode {
     ACCOUNT_ALREADY_UNREGISTERED("계좌가 이미 해지되었습니다."),
     BALANCE_NOT_EMPTY("잔액이 있는 계좌는 해지할 수 없습니다."),
     AMOUNT_EXCEED_BALANCE("거래 금액이 계좌 잔액보다 큽니다."),
+    TRANSFER_SAME_ACCOUNT("같은 계좌로는 이체할 수 없습니다."),
+    UNSUPPORTED_IN_CONCURRENCY_MODE("현재 동시성 모드에서는 지원하지 않는 거래입니다."),
+    BALANCE_ENGINE_UNAVAILABLE("잔액 처리를 일시적으로 할 수 없습니다."),
+    IDEMPOTENCY_REQUEST_IN_PROGRESS("같은 Idempotency-Key 의 요청이 처리 중입니다."),
+    IDEMPOTENCY_KEY_REUSED("Idempotency-Key 가 다른 요청에 이미 사용되었습니다."),
     MAX_ACCOUNT_PER_USER_10("사용자 최대 계좌는 10개 입니다.");
 
     private final String description;
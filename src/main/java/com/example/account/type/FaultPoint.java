@@ -0,0 +1,5 @@
+package com.example.account.type;
+
+public enum FaultPoint {
+    LOCK_ACQUIRE, DB_READ, DB_WRITE
+}
@@ -0,0 +1,8 @@
+package com.example.account.type;
+
+public enum LockFallback {
+    // 서버 내부 lock 으로 계속 처리 (같은 계좌 요청이 같은 서버로 가도록 라우팅되어 있어야 안전)
+    LOCAL,
+    // 바로 거절
+    REJECT
+}
@@ -0,0 +1,7 @@
+package com.example.account.type;
+
+public enum LockStrategy {
+    FAIL_FAST,
+    QUEUE,
+    SPIN_THEN_PARK
+}
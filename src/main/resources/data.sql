@@ -3,4 +3,8 @@ values (1, 'papa', now(), now());
 insert into account_user(id, name, created_at, updated_at)
 values (2, 'momo', now(), now());
 insert into account_user(id, name, created_at, updated_at)
-values (3, 'dada', now(), now());
\ No newline at end of file
+values (3, 'dada', now(), now());
+-- 위에서 직접 넣은 id 와 겹치지 않도록 사용자 id sequence 를 뒤로 미룸
+alter sequence account_user_seq restart with 1000;
+-- 계좌 번호 block 번호 sequence, 계좌 번호는 block 번호와 account.number.block-size 로 계산한다.
+create sequence if not exists account_number_seq start with 1 increment by 1;
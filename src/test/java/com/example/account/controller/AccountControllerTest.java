@@ -5,6 +5,7 @@ import com.example.account.dto.AccountDto;
 import com.example.account.dto.CreateAccount;
 import com.example.account.dto.DeleteAccount;
 import com.example.account.exception.AccountException;
+import com.example.account.metrics.AccountMetrics;
 import com.example.account.service.AccountService;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
@@ -35,6 +36,10 @@ class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    // GlobalExceptionHandler 가 오류 수를 기록
+    @MockBean
+    private AccountMetrics accountMetrics;
+
 
     @Autowired
     private MockMvc mockMvc;
@@ -1,11 +1,24 @@
 package com.example.account.controller;
 
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.LockPolicies;
+import com.example.account.aop.LockPolicy;
 import com.example.account.dto.AccountDto;
+import com.example.account.dto.BulkUseBalance;
 import com.example.account.dto.CancelBalance;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.Transfer;
 import com.example.account.dto.UseBalance;
+import com.example.account.engine.BalanceEngine;
+import com.example.account.failure.FailedTransactionQueue;
+import com.example.account.metrics.AccountMetrics;
+import com.example.account.service.BulkTransactionService;
+import com.example.account.service.TransactionExportService;
 import com.example.account.service.TransactionService;
 import com.example.account.type.TransactionResultType;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.ExportFormat;
 import com.example.account.type.TransactionType;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,7 +28,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -25,10 +41,15 @@ import static com.example.account.type.TransactionType.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TransactionController.class)
@@ -36,6 +57,22 @@ class TransactionControllerTest {
     @MockBean // 가짜 테스트 케이스 생성
     private TransactionService transactionService;
 
+    @MockBean
+    private BulkTransactionService bulkTransactionService;
+
+    @MockBean
+    private FailedTransactionQueue failedTransactionQueue;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private BalanceEngine balanceEngine;
+
+    // GlobalExceptionHandler 가 오류 수를 기록
+    @MockBean
+    private AccountMetrics accountMetrics;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -129,5 +166,144 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.amount").value(2000));
     }
 
+    @Test
+    void successTransfer() throws Exception {
+        //given
+        given(transactionService.transfer(anyLong(), anyString(), anyString(), anyLong()))
+                .willReturn(TransactionDto.builder()
+                        .accountNumber("1000000000")
+                        .transactionType(TRANSFER_OUT)
+                        .transactedAt(LocalDateTime.now())
+                        .transactionId("transactionIdForTransfer")
+                        .amount(5000L)
+                        .transactionResultType(S)
+                        .build());
+        //when
+        //then
+        mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new Transfer.Request(1L, "1000000000", "2000000000", 5000L))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromAccountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.toAccountNumber").value("2000000000"))
+                .andExpect(jsonPath("$.transactionResult").value("S"))
+                .andExpect(jsonPath("$.transactionId").value("transactionIdForTransfer"))
+                .andExpect(jsonPath("$.amount").value(5000));
+    }
+
+    @Test
+    void successUseBalanceBulk() throws Exception {
+        //given
+        given(bulkTransactionService.useBalances(anyList()))
+                .willReturn(List.of(
+                        new BulkUseBalance.Result(TransactionDto.builder()
+                                .accountNumber("1000000000")
+                                .transactedAt(LocalDateTime.now())
+                                .transactionId("transactionId1")
+                                .amount(1000L)
+                                .transactionResultType(S)
+                                .build(), null),
+                        new BulkUseBalance.Result(TransactionDto.builder()
+                                .accountNumber("1000000000")
+                                .transactedAt(LocalDateTime.now())
+                                .transactionId("transactionId2")
+                                .amount(900000L)
+                                .transactionResultType(F)
+                                .build(), ErrorCode.AMOUNT_EXCEED_BALANCE)));
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new BulkUseBalance.Request(List.of(
+                                        new UseBalance.Request(1L, "1000000000", 1000L),
+                                        new UseBalance.Request(1L, "1000000000", 900000L))))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].transactionResult").value("S"))
+                .andExpect(jsonPath("$[0].transactionId").value("transactionId1"))
+                .andExpect(jsonPath("$[1].transactionResult").value("F"))
+                .andExpect(jsonPath("$[1].errorCode").value("AMOUNT_EXCEED_BALANCE"));
+    }
+
+    @Test
+    void successGetTransactionHistory() throws Exception {
+        //given
+        given(transactionService.getTransactionHistory(anyString(), any(), anyInt()))
+                .willReturn(TransactionHistory.builder()
+                        .transactions(List.of(TransactionDto.builder()
+                                .accountNumber("1000000000")
+                                .transactionType(USE)
+                                .transactedAt(LocalDateTime.now())
+                                .transactionId("transactionId")
+                                .amount(1000L)
+                                .transactionResultType(S)
+                                .build()))
+                        .nextCursor("nextCursor")
+                        .build());
+        //when
+        //then
+        mockMvc.perform(get("/transaction/history?account_number=1000000000&size=1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.transactions[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.transactions[0].transactionType").value("USE"))
+                .andExpect(jsonPath("$.nextCursor").value("nextCursor"));
+    }
 
-}
\ No newline at end of file
+    @Test
+    void successExportTransactions() throws Exception {
+        //given
+        willAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(3);
+            outputStream.write("{\"transactionId\":\"transactionId\"}\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).given(transactionExportService).export(any(), any(), any(), any());
+
+        //when
+        MvcResult mvcResult = mockMvc.perform(get("/transaction/export")
+                        .param("from", "2026-09-01T00:00:00")
+                        .param("to", "2026-10-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"transactionId\":\"transactionId\"}\n"));
+        verify(transactionExportService).export(
+                eq(LocalDateTime.of(2026, 9, 1, 0, 0)),
+                eq(LocalDateTime.of(2026, 10, 1, 0, 0)),
+                eq(ExportFormat.NDJSON), any());
+    }
+
+    @Test
+    void accountLockMatchesLockPolicies() throws Exception {
+        //given
+        //when
+        LockPolicy use = LockPolicy.from(TransactionController.class
+                .getMethod("useBalance", UseBalance.Request.class)
+                .getAnnotation(AccountLock.class));
+        LockPolicy cancel = LockPolicy.from(TransactionController.class
+                .getMethod("cancelBalance", CancelBalance.Request.class)
+                .getAnnotation(AccountLock.class));
+
+        //then
+        // strategy 는 annotation 에 직접 적으므로 대량/비동기 처리와 같은지 확인
+        assertSamePolicy(LockPolicies.USE, use);
+        assertSamePolicy(LockPolicies.CANCEL, cancel);
+    }
+
+    private static void assertSamePolicy(LockPolicy expected, LockPolicy actual) {
+        assertEquals(expected.getWaitTime(), actual.getWaitTime());
+        assertEquals(expected.getLeaseTime(), actual.getLeaseTime());
+        assertEquals(expected.getStrategy(), actual.getStrategy());
+        assertEquals(expected.isWatchdog(), actual.isWatchdog());
+    }
+}
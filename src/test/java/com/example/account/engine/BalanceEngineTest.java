@@ -0,0 +1,324 @@
+package com.example.account.engine;
+
+import com.example.account.cache.TransactionCache;
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.id.TimeOrderedTransactionIdGenerator;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ConcurrencyMode;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceEngineTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private BalanceWriteBehind writeBehind;
+
+    @TempDir
+    Path tempDir;
+
+    private BalanceJournal journal;
+
+    private BalanceSnapshot snapshot;
+
+    private BalanceEngine balanceEngine;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+        concurrencyProperties.setMode(ConcurrencyMode.IN_MEMORY);
+        journal = new BalanceJournal(tempDir.toString(), 1024L * 1024L, false);
+        snapshot = new BalanceSnapshot(tempDir.resolve("snapshot.dat").toString(), 1024);
+        balanceEngine = newEngine(concurrencyProperties);
+    }
+
+    private BalanceEngine newEngine(ConcurrencyProperties concurrencyProperties) {
+        return new BalanceEngine(concurrencyProperties, accountRepository,
+                accountUserRepository, transactionRepository,
+                new TransactionCache(null, new ObjectMapper(), new SimpleMeterRegistry(),
+                        1000L, false, 0L),
+                journal, writeBehind, snapshot, new TimeOrderedTransactionIdGenerator(0), 4, 500, 1L, 5000L, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceEngine.stop();
+    }
+
+    private Account givenAccount(Long userId, String accountNumber, long balance) {
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(userId);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountNumber(accountNumber)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(balance)
+                .build();
+        account.setId(1L);
+
+        lenient().when(accountUserRepository.existsById(userId)).thenReturn(true);
+        given(accountRepository.findByAccountNumber(accountNumber))
+                .willReturn(Optional.of(account));
+        return account;
+    }
+
+    @Test
+    void useBalance_appliedInMemoryAndJournaled() {
+        //given
+        givenAccount(12L, "1000000012", 10000L);
+        balanceEngine.start();
+
+        //when
+        TransactionDto transactionDto = balanceEngine.useBalance(12L, "1000000012", 1000L);
+
+        //then
+        assertEquals(TransactionType.USE, transactionDto.getTransactionType());
+        assertEquals(9000L, transactionDto.getBalanceSnapShot());
+        assertEquals(Optional.of(9000L), balanceEngine.getBalance("1000000012"));
+        // 응답 전에 journal 에 남아 있어야 한다.
+        List<BalanceEntry> journaled = journal.readAll();
+        assertEquals(1, journaled.size());
+        assertEquals(transactionDto.getTransactionId(), journaled.get(0).getTransactionId());
+        verify(writeBehind, times(1)).submit(anyList());
+    }
+
+    @Test
+    void useBalance_sameValidationAsTransactionService() {
+        //given
+        givenAccount(12L, "1000000012", 100L);
+        given(accountUserRepository.existsById(13L)).willReturn(true);
+        given(accountUserRepository.existsById(99L)).willReturn(false);
+        balanceEngine.start();
+
+        //when
+        AccountException userNotFound = assertThrows(AccountException.class,
+                () -> balanceEngine.useBalance(99L, "1000000012", 10L));
+        AccountException unMatch = assertThrows(AccountException.class,
+                () -> balanceEngine.useBalance(13L, "1000000012", 10L));
+        AccountException exceed = assertThrows(AccountException.class,
+                () -> balanceEngine.useBalance(12L, "1000000012", 1000L));
+
+        //then
+        assertEquals(ErrorCode.USER_NOT_FOUND, userNotFound.getErrorCode());
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, unMatch.getErrorCode());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exceed.getErrorCode());
+        assertEquals(Optional.of(100L), balanceEngine.getBalance("1000000012"));
+        assertTrue(journal.readAll().isEmpty());
+    }
+
+    @Test
+    void concurrentUseBalance_serializedPerAccount() throws Exception {
+        //given
+        givenAccount(12L, "1000000012", 10000L);
+        balanceEngine.start();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        //when
+        List<CompletableFuture<TransactionDto>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> balanceEngine.useBalance(12L, "1000000012", 10L), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+
+        //then
+        assertEquals(Optional.of(8000L), balanceEngine.getBalance("1000000012"));
+        // journal 순서가 잔액을 바꾼 순서와 같아야 마지막 기록으로 잔액을 복구할 수 있다.
+        List<BalanceEntry> journaled = journal.readAll();
+        assertEquals(200, journaled.size());
+        for (int i = 0; i < journaled.size(); i++) {
+            assertEquals(i + 1, journaled.get(i).getSeq());
+            assertEquals(10000L - 10L * (i + 1), journaled.get(i).getBalanceSnapShot());
+        }
+        // 계좌는 처음 한 번만 DB 에서 읽는다.
+        verify(accountRepository, times(1)).findByAccountNumber("1000000012");
+    }
+
+    @Test
+    void cancelBalance_notYetPersistedTransaction() {
+        //given
+        givenAccount(12L, "1000000012", 10000L);
+        balanceEngine.start();
+        TransactionDto used = balanceEngine.useBalance(12L, "1000000012", 1000L);
+
+        //when
+        TransactionDto canceled = balanceEngine.cancelBalance(
+                used.getTransactionId(), "1000000012", 1000L);
+
+        //then
+        assertEquals(TransactionType.CANCEL, canceled.getTransactionType());
+        assertEquals(10000L, canceled.getBalanceSnapShot());
+        verify(transactionRepository, never()).findByTransactionId(used.getTransactionId());
+    }
+
+    @Test
+    void cancelBalance_mustFully() {
+        //given
+        givenAccount(12L, "1000000012", 10000L);
+        balanceEngine.start();
+        TransactionDto used = balanceEngine.useBalance(12L, "1000000012", 1000L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class, () ->
+                balanceEngine.cancelBalance(used.getTransactionId(), "1000000012", 500L));
+
+        //then
+        assertEquals(ErrorCode.CANCEL_MUST_FULLY, exception.getErrorCode());
+        assertEquals(Optional.of(9000L), balanceEngine.getBalance("1000000012"));
+    }
+
+    @Test
+    void closeAccount_rejectUntilTransactionCompletes() throws Exception {
+        //given
+        Account account = givenAccount(12L, "1000000012", 10000L);
+        given(writeBehind.awaitPersisted(anyLong())).willReturn(true);
+        balanceEngine.start();
+        TransactionDto used = balanceEngine.useBalance(12L, "1000000012", 1000L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            //when
+            balanceEngine.closeAccount("1000000012");
+            AccountException closing = assertThrows(AccountException.class,
+                    () -> balanceEngine.cancelBalance(used.getTransactionId(), "1000000012", 1000L));
+            // 해지 트랜잭션 commit
+            account.setAccountStatus(AccountStatus.UNREGISTERED);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            AccountException closed = assertThrows(AccountException.class,
+                    () -> balanceEngine.useBalance(12L, "1000000012", 1000L));
+
+            //then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, closing.getErrorCode());
+            assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, closed.getErrorCode());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void closeAccount_failWhenNotPersisted() throws Exception {
+        //given
+        givenAccount(12L, "1000000012", 10000L);
+        given(writeBehind.awaitPersisted(anyLong())).willReturn(false);
+        balanceEngine.start();
+        balanceEngine.useBalance(12L, "1000000012", 1000L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> balanceEngine.closeAccount("1000000012"));
+
+        //then
+        assertEquals(ErrorCode.BALANCE_ENGINE_UNAVAILABLE, exception.getErrorCode());
+        // 해지하지 않은 계좌는 계속 거래할 수 있다.
+        assertEquals(Optional.of(9000L), balanceEngine.getBalance("1000000012"));
+        assertEquals(8000L, balanceEngine.useBalance(12L, "1000000012", 1000L)
+                .getBalanceSnapShot());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void start_replayJournalToDb() {
+        //given
+        journal.open(7L);
+        BalanceEntry entry = new BalanceEntry(7L, "transactionId", 1L, "1000000012",
+                TransactionType.USE, 1000L, 9000L, LocalDateTime.now());
+        journal.append(List.of(entry));
+        journal.close();
+        ArgumentCaptor<List<BalanceEntry>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        balanceEngine.start();
+
+        //then
+        verify(writeBehind, times(1)).persist(captor.capture());
+        assertEquals("transactionId", captor.getValue().get(0).getTransactionId());
+        verify(writeBehind, times(1)).start(7L);
+        assertTrue(journal.readAll().isEmpty());
+    }
+
+    @Test
+    void restart_loadAccountFromSnapshot() {
+        //given
+        givenAccount(12L, "1000000012", 10000L);
+        balanceEngine.start();
+        balanceEngine.useBalance(12L, "1000000012", 1000L);
+        balanceEngine.stop();
+        ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+        concurrencyProperties.setMode(ConcurrencyMode.IN_MEMORY);
+        balanceEngine = newEngine(concurrencyProperties);
+
+        //when
+        balanceEngine.start();
+        TransactionDto transactionDto = balanceEngine.useBalance(12L, "1000000012", 1000L);
+
+        //then
+        assertEquals(8000L, transactionDto.getBalanceSnapShot());
+        assertEquals(2L, journal.readAll().get(0).getSeq());
+        // 재기동 후에는 DB 대신 snapshot 에서 계좌를 읽는다.
+        verify(accountRepository, times(1)).findByAccountNumber("1000000012");
+    }
+
+    @Test
+    void disabled_whenNotInMemoryMode() {
+        //given
+        ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+        BalanceEngine engine = newEngine(concurrencyProperties);
+
+        //when
+        engine.start();
+
+        //then
+        assertFalse(engine.isEnabled());
+        assertFalse(engine.isRunning());
+        verify(writeBehind, never()).start(anyLong());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.account.engine;
+
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceJournalTest {
+    @TempDir
+    Path tempDir;
+
+    private static BalanceEntry entry(long seq) {
+        return new BalanceEntry(seq, String.format("%032x", seq), 1L, "1000000012",
+                TransactionType.USE, 10L, 10000L - 10L * seq,
+                LocalDateTime.of(2026, 10, 16, 12, 0, 0, 123456789));
+    }
+
+    private static List<BalanceEntry> entries(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(BalanceJournalTest::entry)
+                .collect(Collectors.toList());
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> paths = Files.list(tempDir)) {
+            return paths.count();
+        }
+    }
+
+    @Test
+    void appendAndReadAll() {
+        //given
+        BalanceJournal journal = new BalanceJournal(tempDir.toString(), 1024L * 1024L, false);
+        journal.open(1L);
+
+        //when
+        journal.append(entries(1L, 3L));
+        journal.close();
+        List<BalanceEntry> read = journal.readAll();
+
+        //then
+        assertEquals(3, read.size());
+        BalanceEntry first = read.get(0);
+        assertEquals(1L, first.getSeq());
+        assertEquals(String.format("%032x", 1L), first.getTransactionId());
+        assertEquals("1000000012", first.getAccountNumber());
+        assertEquals(TransactionType.USE, first.getTransactionType());
+        assertEquals(9990L, first.getBalanceSnapShot());
+        assertEquals(LocalDateTime.of(2026, 10, 16, 12, 0, 0, 123456789),
+                first.getTransactedAt());
+    }
+
+    @Test
+    void transactionTypeWrittenAsFixedCode() {
+        //given
+        ByteBuffer buffer = ByteBuffer.allocate(BalanceJournal.RECORD_SIZE);
+
+        for (TransactionType transactionType : TransactionType.values()) {
+            BalanceEntry entry = new BalanceEntry(1L, String.format("%032x", 1L), 1L,
+                    "1000000012", transactionType, 10L, 9990L, LocalDateTime.now());
+
+            //when
+            buffer.clear();
+            BalanceJournal.write(buffer, entry);
+            buffer.flip();
+
+            //then
+            assertEquals(transactionType, BalanceJournal.read(buffer).getTransactionType());
+        }
+        buffer.clear();
+        BalanceJournal.write(buffer, new BalanceEntry(1L, String.format("%032x", 1L), 1L,
+                "1000000012", TransactionType.TRANSFER_IN, 10L, 9990L, LocalDateTime.now()));
+        // seq(8) + 거래번호(32) + 계좌id(8) + 계좌번호(16) 다음이 거래종류
+        assertEquals(3, buffer.get(64));
+    }
+
+    @Test
+    void rollover_whenSegmentFull() throws IOException {
+        //given
+        // segment 하나에 기록 2건
+        BalanceJournal journal = new BalanceJournal(tempDir.toString(),
+                BalanceJournal.RECORD_SIZE * 2L, false);
+        journal.open(1L);
+
+        //when
+        journal.append(entries(1L, 5L));
+
+        //then
+        assertEquals(3, segmentCount());
+        assertEquals(entries(1L, 5L).stream().map(BalanceEntry::getSeq)
+                        .collect(Collectors.toList()),
+                journal.readAll().stream().map(BalanceEntry::getSeq)
+                        .collect(Collectors.toList()));
+        journal.close();
+    }
+
+    @Test
+    void release_deletePersistedSegmentsOnly() throws IOException {
+        //given
+        BalanceJournal journal = new BalanceJournal(tempDir.toString(),
+                BalanceJournal.RECORD_SIZE * 2L, false);
+        journal.open(1L);
+        journal.append(entries(1L, 5L));
+
+        //when
+        // 1~2, 3~4, 5 segment 중 3 까지만 반영된 경우 첫 segment 만 지운다.
+        journal.release(3L);
+
+        //then
+        assertEquals(2, segmentCount());
+        assertEquals(3L, journal.readAll().get(0).getSeq());
+        journal.close();
+    }
+
+    @Test
+    void readAll_stopAtTornRecord() throws IOException {
+        //given
+        BalanceJournal journal = new BalanceJournal(tempDir.toString(), 1024L * 1024L, false);
+        journal.open(1L);
+        journal.append(entries(1L, 2L));
+        journal.close();
+        // 두 번째 기록을 쓰는 도중 죽은 경우 : 앞부분만 남고 crc 가 맞지 않는다.
+        Path segment;
+        try (Stream<Path> paths = Files.list(tempDir)) {
+            segment = paths.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[40]), BalanceJournal.RECORD_SIZE + 8L);
+        }
+
+        //when
+        List<BalanceEntry> read = journal.readAll();
+
+        //then
+        assertEquals(1, read.size());
+        assertEquals(1L, read.get(0).getSeq());
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.account.engine;
+
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceSnapshotTest {
+    @TempDir
+    Path tempDir;
+
+    private BalanceSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = newSnapshot();
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.close();
+    }
+
+    private BalanceSnapshot newSnapshot() {
+        return new BalanceSnapshot(tempDir.resolve("snapshot.dat").toString(), 16);
+    }
+
+    private AccountState account(String accountNumber) {
+        return new AccountState(1L, accountNumber, 12L, AccountStatus.IN_USE, 10000L);
+    }
+
+    private BalanceEntry entry(long seq, String accountNumber, long balanceSnapShot) {
+        return new BalanceEntry(seq, "transactionId" + seq, 1L, accountNumber,
+                TransactionType.USE, 1000L, balanceSnapShot, LocalDateTime.now());
+    }
+
+    @Test
+    void putAndGet() {
+        //given
+        assertEquals(-1L, snapshot.open());
+
+        //when
+        snapshot.put(account("1000000012"), 9000L);
+        snapshot.put(account("1000000012"), 8000L);
+
+        //then
+        AccountState account = snapshot.get("1000000012").orElseThrow();
+        assertEquals(1L, account.getId());
+        assertEquals(12L, account.getUserId());
+        assertEquals(AccountStatus.IN_USE, account.getAccountStatus());
+        assertEquals(8000L, account.getBalance());
+        assertEquals(Optional.empty(), snapshot.get("1000000013"));
+    }
+
+    @Test
+    void reopen_keepWatermarkAndAccounts() {
+        //given
+        snapshot.open();
+        snapshot.put(account("1000000012"), 9000L);
+        snapshot.checkpoint(5L);
+        snapshot.close();
+        snapshot = newSnapshot();
+
+        //when
+        long watermark = snapshot.open();
+
+        //then
+        assertEquals(5L, watermark);
+        assertEquals(9000L, snapshot.get("1000000012").orElseThrow().getBalance());
+    }
+
+    @Test
+    void recover_applyJournalAfterWatermark() {
+        //given
+        snapshot.open();
+        snapshot.put(account("1000000012"), 9000L);
+        snapshot.checkpoint(1L);
+        List<BalanceEntry> entries = List.of(
+                entry(1L, "1000000012", 9000L),
+                entry(2L, "1000000012", 8000L),
+                entry(3L, "1000000013", 5000L));
+
+        //when
+        boolean recovered = snapshot.recover(1L, entries, 1L, 3L);
+
+        //then
+        assertTrue(recovered);
+        assertEquals(8000L, snapshot.get("1000000012").orElseThrow().getBalance());
+        // snapshot 에 없던 계좌는 DB 에서 읽도록 넣지 않는다.
+        assertEquals(Optional.empty(), snapshot.get("1000000013"));
+    }
+
+    @Test
+    void recover_discardWhenJournalHasGap() {
+        //given
+        snapshot.open();
+        snapshot.put(account("1000000012"), 9000L);
+        snapshot.checkpoint(1L);
+
+        //when
+        boolean recovered = snapshot.recover(1L,
+                List.of(entry(5L, "1000000012", 5000L)), 5L, 5L);
+
+        //then
+        assertFalse(recovered);
+        assertEquals(Optional.empty(), snapshot.get("1000000012"));
+    }
+
+    @Test
+    void remove_andReuseSlot() {
+        //given
+        snapshot.open();
+        for (int i = 0; i < 12; i++) {
+            snapshot.put(account("10000000" + (10 + i)), 1000L * i);
+        }
+
+        //when
+        snapshot.remove("1000000010");
+        snapshot.put(account("2000000000"), 500L);
+
+        //then
+        assertEquals(Optional.empty(), snapshot.get("1000000010"));
+        assertEquals(500L, snapshot.get("2000000000").orElseThrow().getBalance());
+        assertEquals(11000L, snapshot.get("1000000021").orElseThrow().getBalance());
+    }
+
+    @Test
+    void removedSlotsCountAsFull_compactOnCheckpoint() {
+        //given
+        snapshot.open();
+        for (int i = 0; i < 12; i++) {
+            snapshot.put(account("10000000" + (10 + i)), 1000L * i);
+        }
+        for (int i = 0; i < 4; i++) {
+            snapshot.remove("10000000" + (10 + i));
+        }
+        // 지운 slot 도 탐색 길이에 포함되므로 새 계좌는 넣지 않는다.
+        snapshot.put(account("2000000000"), 500L);
+        assertEquals(Optional.empty(), snapshot.get("2000000000"));
+
+        //when
+        snapshot.checkpoint(7L);
+        snapshot.put(account("2000000000"), 500L);
+
+        //then
+        assertEquals(0, snapshot.removedSlots());
+        assertEquals(500L, snapshot.get("2000000000").orElseThrow().getBalance());
+        snapshot.close();
+        snapshot = newSnapshot();
+        assertEquals(7L, snapshot.open());
+        assertEquals(Optional.empty(), snapshot.get("1000000010"));
+        assertEquals(11000L, snapshot.get("1000000021").orElseThrow().getBalance());
+    }
+
+    @Test
+    void reopen_keepAccountStatus() {
+        //given
+        snapshot.open();
+        snapshot.put(new AccountState(2L, "1000000013", 12L,
+                AccountStatus.UNREGISTERED, 0L), 0L);
+        snapshot.checkpoint(1L);
+        snapshot.close();
+        snapshot = newSnapshot();
+
+        //when
+        snapshot.open();
+
+        //then
+        assertEquals(AccountStatus.UNREGISTERED,
+                snapshot.get("1000000013").orElseThrow().getAccountStatus());
+    }
+
+    @Test
+    void get_failOnUnknownStatusCode() throws Exception {
+        //given
+        snapshot.open();
+        snapshot.put(account("1000000012"), 9000L);
+        snapshot.checkpoint(1L);
+        snapshot.close();
+        // 사용 중인 slot 의 상태 값을 알 수 없는 값으로 바꾼다. (header 64, 상태 40, slot 상태 41)
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("snapshot.dat"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer slot = ByteBuffer.allocate(BalanceSnapshot.SLOT_SIZE);
+            for (long offset = 64; offset < channel.size(); offset += BalanceSnapshot.SLOT_SIZE) {
+                slot.clear();
+                channel.read(slot, offset);
+                if (slot.get(41) == 1) {
+                    channel.write(ByteBuffer.wrap(new byte[]{9}), offset + 40);
+                }
+            }
+        }
+        snapshot = newSnapshot();
+        snapshot.open();
+
+        //when
+        //then
+        assertThrows(IllegalStateException.class, () -> snapshot.get("1000000012"));
+    }
+}
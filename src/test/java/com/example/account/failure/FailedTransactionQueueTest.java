@@ -0,0 +1,213 @@
+package com.example.account.failure;
+
+import com.example.account.dto.FailedTransaction;
+import com.example.account.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionQueueTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @TempDir
+    Path tempDir;
+
+    private FailedTransactionSpillFile spillFile;
+
+    @BeforeEach
+    void setUp() {
+        spillFile = new FailedTransactionSpillFile(
+                tempDir.resolve("failed-transactions.log").toString());
+    }
+
+    private FailedTransactionQueue queue(int capacity) {
+        return new FailedTransactionQueue(transactionService, spillFile,
+                capacity, 2, 10L, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void flushInBatches() {
+        //given
+        FailedTransactionQueue queue = queue(10);
+        queue.enqueue(USE, "1000000000", 1000L);
+        queue.enqueue(USE, "1000000000", 2000L);
+        queue.enqueue(CANCEL, "2000000000", 3000L);
+
+        //when
+        queue.flush();
+
+        //then
+        verify(transactionService, times(2)).saveFailedTransactions(anyList());
+        assertEquals(0, queue.size());
+        assertTrue(spillFile.readAll().isEmpty());
+    }
+
+    @Test
+    void spillOverflowOnWriter_whenQueueIsFull() throws InterruptedException {
+        //given
+        FailedTransactionQueue queue = queue(1);
+
+        //when
+        queue.enqueue(USE, "1000000000", 1000L);
+        queue.enqueue(CANCEL, "2000000000", 2000L);
+
+        //then
+        // 요청 스레드에서는 파일을 쓰지 않는다.
+        assertEquals(1, queue.size());
+        assertTrue(spillFile.readAll().isEmpty());
+
+        //when
+        queue.start();
+        List<FailedTransaction> spilled = awaitSpilled(1);
+        queue.stop();
+
+        //then
+        assertEquals(CANCEL, spilled.get(0).getTransactionType());
+        assertEquals("2000000000", spilled.get(0).getAccountNumber());
+        assertEquals(2000L, spilled.get(0).getAmount());
+    }
+
+    private List<FailedTransaction> awaitSpilled(int count) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<FailedTransaction> spilled = spillFile.readAll();
+            if (spilled.size() >= count) {
+                return spilled;
+            }
+            Thread.sleep(10L);
+        }
+        return spillFile.readAll();
+    }
+
+    @Test
+    void spillToFile_whenEnqueuedAfterStop() throws InterruptedException {
+        //given
+        FailedTransactionQueue queue = queue(10);
+        queue.stop();
+
+        //when
+        queue.enqueue(CANCEL, "2000000000", 2000L);
+
+        //then
+        List<FailedTransaction> spilled = spillFile.readAll();
+        assertEquals(0, queue.size());
+        assertEquals(1, spilled.size());
+        assertEquals(CANCEL, spilled.get(0).getTransactionType());
+        assertEquals("2000000000", spilled.get(0).getAccountNumber());
+        assertEquals(2000L, spilled.get(0).getAmount());
+    }
+
+    @Test
+    void notThrow_whenSpillFailed() throws InterruptedException {
+        //given
+        FailedTransactionSpillFile brokenSpillFile = mock(FailedTransactionSpillFile.class);
+        willThrow(new UncheckedIOException(new IOException("disk full")))
+                .given(brokenSpillFile).append(anyList());
+        FailedTransactionQueue queue = new FailedTransactionQueue(transactionService,
+                brokenSpillFile, 10, 2, 10L, new SimpleMeterRegistry());
+        queue.stop();
+
+        //when
+        //then
+        assertDoesNotThrow(() -> queue.enqueue(USE, "1000000000", 1000L));
+    }
+
+    @Test
+    void spillToFile_whenSaveFailed() {
+        //given
+        FailedTransactionQueue queue = queue(10);
+        willThrow(new IllegalStateException("db down"))
+                .given(transactionService).saveFailedTransactions(anyList());
+        queue.enqueue(USE, "1000000000", 1000L);
+
+        //when
+        queue.flush();
+
+        //then
+        assertEquals(1, spillFile.readAll().size());
+    }
+
+    @Test
+    void keepSpillFile_untilReplaySaved() throws InterruptedException {
+        //given
+        spillFile.append(List.of(
+                new FailedTransaction(USE, "1000000000", 1000L, LocalDateTime.now()),
+                new FailedTransaction(USE, "1000000000", 2000L, LocalDateTime.now()),
+                new FailedTransaction(USE, "1000000000", 3000L, LocalDateTime.now())));
+        // 이전 기동이 반영 중에 죽은 경우
+        assertEquals(3, spillFile.beginReplay().size());
+        willThrow(new IllegalStateException("db down"))
+                .willDoNothing()
+                .given(transactionService).saveFailedTransactions(anyList());
+
+        //when
+        FailedTransactionQueue queue = queue(10);
+        queue.start();
+        queue.stop();
+
+        //then
+        // 저장하지 못한 batch 부터 파일에 남는다.
+        assertEquals(3, spillFile.readAll().size());
+
+        //when
+        FailedTransactionQueue restarted = queue(10);
+        restarted.start();
+        restarted.stop();
+
+        //then
+        verify(transactionService, times(3)).saveFailedTransactions(anyList());
+        assertTrue(spillFile.readAll().isEmpty());
+        assertTrue(spillFile.beginReplay().isEmpty());
+    }
+
+    @Test
+    void spillRemaining_onStop_andReplayOnStart() throws InterruptedException {
+        //given
+        FailedTransactionQueue queue = queue(10);
+        queue.enqueue(USE, "1000000000", 1000L);
+        queue.enqueue(USE, "1000000000", 2000L);
+        queue.enqueue(USE, "1000000000", 3000L);
+
+        //when
+        queue.stop();
+
+        //then
+        verify(transactionService, never()).saveFailedTransactions(anyList());
+        assertEquals(3, spillFile.readAll().size());
+
+        //when
+        FailedTransactionQueue restarted = queue(10);
+        restarted.start();
+        restarted.stop();
+
+        //then
+        ArgumentCaptor<List<FailedTransaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, times(2)).saveFailedTransactions(captor.capture());
+        assertEquals(3000L, captor.getAllValues().get(1).get(0).getAmount());
+        assertTrue(spillFile.readAll().isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.account.fault;
+
+import com.example.account.config.FaultInjectionProperties;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.FaultPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FaultInjectorTest {
+    private static FaultInjector faultInjector(boolean enabled, FaultPoint point,
+                                               long latencyMs, double errorRate) {
+        FaultInjectionProperties properties = new FaultInjectionProperties();
+        properties.setEnabled(enabled);
+        FaultInjectionProperties.Fault fault = new FaultInjectionProperties.Fault();
+        fault.setLatencyMs(latencyMs);
+        fault.setErrorRate(errorRate);
+        properties.getPoints().put(point, fault);
+
+        return new FaultInjector(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void disabled_doNothing() {
+        //given
+        FaultInjector faultInjector = faultInjector(false, FaultPoint.DB_WRITE, 3000L, 1.0);
+
+        //when
+        long startedAt = System.nanoTime();
+        faultInjector.inject(FaultPoint.DB_WRITE);
+
+        //then
+        assertTrue(System.nanoTime() - startedAt < 1_000_000_000L);
+    }
+
+    @Test
+    void injectLatency() {
+        //given
+        FaultInjector faultInjector = faultInjector(true, FaultPoint.DB_READ, 50L, 0.0);
+
+        //when
+        long startedAt = System.nanoTime();
+        faultInjector.inject(FaultPoint.DB_READ);
+        faultInjector.inject(FaultPoint.DB_WRITE);
+
+        //then
+        assertTrue(System.nanoTime() - startedAt >= 50_000_000L);
+    }
+
+    @Test
+    void injectError_lockAcquire() {
+        //given
+        FaultInjector faultInjector = faultInjector(true, FaultPoint.LOCK_ACQUIRE, 0L, 1.0);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> faultInjector.inject(FaultPoint.LOCK_ACQUIRE));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+    }
+
+    @Test
+    void injectError_db() {
+        //given
+        FaultInjector faultInjector = faultInjector(true, FaultPoint.DB_WRITE, 0L, 1.0);
+
+        //when
+        //then
+        assertThrows(TransientDataAccessResourceException.class,
+                () -> faultInjector.inject(FaultPoint.DB_WRITE));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.account.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedTransactionIdGeneratorTest {
+
+    @Test
+    void sameFormatAsRandom() {
+        //given
+        TransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(0x12ab);
+
+        //when
+        String transactionId = generator.next();
+
+        //then
+        assertEquals(new RandomTransactionIdGenerator().next().length(), transactionId.length());
+        assertTrue(transactionId.matches("[0-9a-f]{32}"));
+        // 뒤쪽 64bit 의 앞 16bit 가 서버 번호
+        assertEquals("12ab", transactionId.substring(16, 20));
+    }
+
+    @Test
+    void increasingInIssueOrder() {
+        //given
+        TransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(1);
+        List<String> transactionIds = new ArrayList<>();
+
+        //when
+        // 같은 ms 안에서 순번(16bit)을 넘겨도 순서가 유지되어야 한다.
+        for (int i = 0; i < 200_000; i++) {
+            transactionIds.add(generator.next());
+        }
+
+        //then
+        for (int i = 1; i < transactionIds.size(); i++) {
+            assertTrue(transactionIds.get(i - 1).compareTo(transactionIds.get(i)) < 0,
+                    transactionIds.get(i - 1) + " >= " + transactionIds.get(i));
+        }
+    }
+
+    @Test
+    void uniqueAcrossThreads() throws InterruptedException {
+        //given
+        TransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(1);
+        Set<String> transactionIds = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    transactionIds.add(generator.next());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        //then
+        assertEquals(80_000, transactionIds.size());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.account.idempotency;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyAspectTest {
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    @Mock
+    private Signature signature;
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClientProvider;
+
+    private MockHttpServletRequest httpRequest;
+
+    private IdempotencyAspect idempotencyAspect;
+
+    @BeforeEach
+    void setUp() {
+        // Redis 없이 서버 내부 캐시만 사용
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        IdempotencyStore idempotencyStore = new IdempotencyStore(
+                redissonClientProvider, objectMapper, 86400L, 30L, 1000L, 600L);
+        idempotencyAspect = new IdempotencyAspect(idempotencyStore, objectMapper);
+
+        httpRequest = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(httpRequest));
+        lenient().when(proceedingJoinPoint.getSignature()).thenReturn(signature);
+        lenient().when(signature.getName()).thenReturn("useBalance");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void duplicateRequest_returnsFirstResponse() throws Throwable {
+        //given
+        httpRequest.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "key-1");
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+        UseBalance.Response response = UseBalance.Response.builder()
+                .transactionId("transactionId").build();
+        given(proceedingJoinPoint.proceed()).willReturn(response);
+
+        //when
+        Object first = idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+        Object second = idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        assertSame(response, first);
+        assertSame(response, second);
+    }
+
+    @Test
+    void noHeader_alwaysProceed() throws Throwable {
+        //given
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+
+        //when
+        idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+        idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(proceedingJoinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void failedRequest_canBeRetried() throws Throwable {
+        //given
+        httpRequest.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "key-2");
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .willReturn("ok");
+
+        //when
+        assertThrows(AccountException.class, () ->
+                idempotencyAspect.aroundMethod(proceedingJoinPoint, request));
+        Object result = idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(proceedingJoinPoint, times(2)).proceed();
+        assertEquals("ok", result);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequest_rejected() throws Throwable {
+        //given
+        httpRequest.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "key-3");
+        given(proceedingJoinPoint.proceed()).willReturn("ok");
+        idempotencyAspect.aroundMethod(proceedingJoinPoint,
+                new UseBalance.Request(1L, "1000000000", 1000L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class, () ->
+                idempotencyAspect.aroundMethod(proceedingJoinPoint,
+                        new UseBalance.Request(1L, "1000000000", 2000L)));
+
+        //then
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, exception.getErrorCode());
+        verify(proceedingJoinPoint, times(1)).proceed();
+    }
+
+    @Test
+    void requestInProgress_rejected() throws Throwable {
+        //given
+        httpRequest.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "key-4");
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+        // 첫 요청이 처리되는 동안 같은 key 로 재시도가 들어온 경우
+        given(proceedingJoinPoint.proceed()).willAnswer(invocation ->
+                assertThrows(AccountException.class, () ->
+                        idempotencyAspect.aroundMethod(proceedingJoinPoint, request))
+                        .getErrorCode());
+
+        //when
+        Object result = idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        assertEquals(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS, result);
+    }
+
+    @Test
+    void asyncResponse_storedWhenCompleted() throws Throwable {
+        //given
+        httpRequest.addHeader(IdempotencyAspect.IDEMPOTENCY_KEY_HEADER, "key-5");
+        UseBalance.Request request = new UseBalance.Request(1L, "1000000000", 1000L);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        given(proceedingJoinPoint.proceed()).willReturn(future);
+
+        //when
+        CompletableFuture<?> first = (CompletableFuture<?>)
+                idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+        // 처리가 끝나기 전 재시도는 거절
+        AccountException inProgress = assertThrows(AccountException.class, () ->
+                idempotencyAspect.aroundMethod(proceedingJoinPoint, request));
+        future.complete("ok");
+        Object second = idempotencyAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        assertEquals(ErrorCode.IDEMPOTENCY_REQUEST_IN_PROGRESS, inProgress.getErrorCode());
+        assertEquals("ok", first.get());
+        assertEquals("ok", second);
+        verify(proceedingJoinPoint, times(1)).proceed();
+    }
+}
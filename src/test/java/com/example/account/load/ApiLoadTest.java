@@ -0,0 +1,339 @@
+package com.example.account.load;
+
+import com.example.account.domain.AccountUser;
+import com.example.account.repository.AccountUserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * REST API 를 섞어서 목표 처리량(rate)으로 보내고 endpoint 별 처리량과 HDR 응답 시간 분포를 남긴다.
+ * 응답을 기다리지 않고 정해진 시각에 요청을 보내며(open loop), 응답 시간은 보내려던 시각부터 잰다.
+ * (서버가 밀리면 그만큼 대기 시간도 응답 시간에 들어간다. coordinated omission 보정)
+ * 실행 : ./gradlew loadTest --tests '*ApiLoadTest' -Pload.rate=500 -Pload.duration-seconds=60
+ * 결과 : build/reports/load/<endpoint>.hgrm (HdrHistogram plotter 로 그려 볼 수 있다)
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.show_sql=false")
+class ApiLoadTest {
+    private static final long AMOUNT = 10L;
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    // 취소/조회에 쓸 최근 거래 번호 개수
+    private static final int RECENT_TRANSACTIONS = 10_000;
+
+    // 설정 (gradle -Pload.xxx 로 바꾼다)
+    private final int users = intProperty("load.users", 100);
+    private final int accountsPerUser = intProperty("load.accounts-per-user", 2);
+    private final int rate = intProperty("load.rate", 200);
+    private final int durationSeconds = intProperty("load.duration-seconds", 30);
+    // 잔액 사용 중 첫 번째 계좌(인기 가맹점)로 몰리는 비율
+    private final double hotAccountRatio = Double.parseDouble(
+            System.getProperty("load.hot-account-ratio", "0.1"));
+    private final String mix = System.getProperty("load.mix",
+            "use:50,cancel:10,get-transaction:20,get-account:15,create-account:5");
+    private final Path reportDir = Paths.get(
+            System.getProperty("load.report-dir", "build/reports/load"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountUserRepository accountUserRepository;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<LoadAccount> accounts = new ArrayList<>();
+    private final Queue<UsedTransaction> cancelable = new ConcurrentLinkedQueue<>();
+    // 최근 거래 번호 (고리 버퍼)
+    private final AtomicReferenceArray<String> recentTransactionIds =
+            new AtomicReferenceArray<>(RECENT_TRANSACTIONS);
+    private final AtomicInteger recentTransactionCount = new AtomicInteger();
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+
+    enum Endpoint {
+        USE("use"),
+        CANCEL("cancel"),
+        GET_TRANSACTION("get-transaction"),
+        GET_ACCOUNT("get-account"),
+        CREATE_ACCOUNT("create-account");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+
+        static Endpoint of(String key) {
+            for (Endpoint endpoint : values()) {
+                if (endpoint.key.equals(key)) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint in load.mix: " + key);
+        }
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        seed();
+        Endpoint[] weighted = parseMix();
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+
+        long total = (long) rate * durationSeconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedAt = startedAt + i * intervalNanos;
+            long waitNanos = intendedAt - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            Endpoint endpoint = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+            futures.add(send(endpoint, intendedAt));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .get(5, TimeUnit.MINUTES);
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        report(elapsedSeconds);
+        assertEquals(total, stats.values().stream().mapToLong(Stats::completed).sum());
+    }
+
+    /**
+     * 사용자를 만들고 사용자마다 계좌를 연다. (계좌는 API 로 만든다)
+     */
+    private void seed() throws Exception {
+        List<AccountUser> seeded = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            seeded.add(AccountUser.builder().name("load-" + i).build());
+        }
+        for (AccountUser user : accountUserRepository.saveAll(seeded)) {
+            for (int i = 0; i < accountsPerUser; i++) {
+                HttpResponse<String> response = httpClient.send(
+                        post("/account", createAccountBody(user.getId())),
+                        HttpResponse.BodyHandlers.ofString());
+                accounts.add(new LoadAccount(user.getId(),
+                        objectMapper.readTree(response.body()).get("accountNumber").asText()));
+            }
+        }
+    }
+
+    private Endpoint[] parseMix() {
+        List<Endpoint> weighted = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] keyAndWeight = part.trim().split(":");
+            Endpoint endpoint = Endpoint.of(keyAndWeight[0]);
+            for (int i = 0; i < Integer.parseInt(keyAndWeight[1]); i++) {
+                weighted.add(endpoint);
+            }
+        }
+        return weighted.toArray(new Endpoint[0]);
+    }
+
+    private CompletableFuture<Void> send(Endpoint endpoint, long intendedAt) {
+        // 취소/조회할 거래가 아직 없으면 잔액 사용으로 대신한다.
+        UsedTransaction used = endpoint == Endpoint.CANCEL ? cancelable.poll() : null;
+        String transactionId = endpoint == Endpoint.GET_TRANSACTION
+                ? pickTransactionId() : null;
+        if ((endpoint == Endpoint.CANCEL && used == null)
+                || (endpoint == Endpoint.GET_TRANSACTION && transactionId == null)) {
+            endpoint = Endpoint.USE;
+        }
+
+        LoadAccount account = pickAccount(endpoint);
+        HttpRequest request;
+        switch (endpoint) {
+            case CANCEL:
+                request = post("/transaction/cancel", "{\"transactionId\":\"" + used.transactionId
+                        + "\",\"accountNumber\":\"" + used.accountNumber
+                        + "\",\"amount\":" + AMOUNT + "}");
+                break;
+            case GET_TRANSACTION:
+                request = get("/transaction/" + transactionId);
+                break;
+            case GET_ACCOUNT:
+                request = get("/account?user_id=" + account.userId);
+                break;
+            case CREATE_ACCOUNT:
+                request = post("/account", createAccountBody(account.userId));
+                break;
+            default:
+                request = post("/transaction/use", "{\"userId\":" + account.userId
+                        + ",\"accountNumber\":\"" + account.accountNumber
+                        + "\",\"amount\":" + AMOUNT + "}");
+        }
+
+        Endpoint sent = endpoint;
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, e) -> {
+                    long latencyMicros = TimeUnit.NANOSECONDS.toMicros(
+                            System.nanoTime() - intendedAt);
+                    // 업무 오류도 200 + errorCode 로 내려오므로 본문으로 구분한다.
+                    boolean succeeded = e == null && response.statusCode() == 200
+                            && !response.body().contains("\"errorCode\"");
+                    stats.get(sent).record(latencyMicros, succeeded);
+                    if (succeeded && sent == Endpoint.USE) {
+                        remember(response.body());
+                    }
+                    return null;
+                });
+    }
+
+    private LoadAccount pickAccount(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (endpoint == Endpoint.USE && random.nextDouble() < hotAccountRatio) {
+            return accounts.get(0);
+        }
+        return accounts.get(random.nextInt(accounts.size()));
+    }
+
+    private String pickTransactionId() {
+        int count = Math.min(recentTransactionCount.get(), RECENT_TRANSACTIONS);
+        return count == 0 ? null
+                : recentTransactionIds.get(ThreadLocalRandom.current().nextInt(count));
+    }
+
+    private void remember(String body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            String transactionId = json.get("transactionId").asText();
+            cancelable.add(new UsedTransaction(json.get("accountNumber").asText(), transactionId));
+            recentTransactionIds.set(
+                    recentTransactionCount.getAndIncrement() % RECENT_TRANSACTIONS, transactionId);
+        } catch (IOException ignored) {
+            // 부하 측정에는 영향이 없으므로 무시
+        }
+    }
+
+    private void report(double elapsedSeconds) throws IOException {
+        Files.createDirectories(reportDir);
+        System.out.printf("users=%d accounts=%d rate=%d/s duration=%ds elapsed=%.1fs mix=%s%n",
+                users, accounts.size(), rate, durationSeconds, elapsedSeconds, mix);
+        System.out.printf("%-16s %8s %8s %10s %9s %9s %9s %9s %9s%n", "endpoint", "count",
+                "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+            Stats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.histogram;
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-16s %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().key, histogram.getTotalCount(), endpointStats.errors.get(),
+                    histogram.getTotalCount() / elapsedSeconds,
+                    millis(histogram, 50.0), millis(histogram, 90.0),
+                    millis(histogram, 99.0), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+            try (PrintStream out = new PrintStream(new FileOutputStream(
+                    reportDir.resolve(entry.getKey().key + ".hgrm").toFile()))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static String createAccountBody(Long userId) {
+        return "{\"userId\":" + userId + ",\"initialBalance\":" + INITIAL_BALANCE + "}";
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static class LoadAccount {
+        private final Long userId;
+        private final String accountNumber;
+
+        private LoadAccount(Long userId, String accountNumber) {
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+        }
+    }
+
+    private static class UsedTransaction {
+        private final String accountNumber;
+        private final String transactionId;
+
+        private UsedTransaction(String accountNumber, String transactionId) {
+            this.accountNumber = accountNumber;
+            this.transactionId = transactionId;
+        }
+    }
+
+    private static class Stats {
+        // 1us ~ 60s, 유효숫자 3자리
+        private final Histogram histogram =
+                new ConcurrentHistogram(1L, TimeUnit.SECONDS.toMicros(60), 3);
+        private final AtomicLong errors = new AtomicLong();
+
+        private void record(long latencyMicros, boolean succeeded) {
+            histogram.recordValue(Math.max(1L, Math.min(latencyMicros, histogram.getHighestTrackableValue())));
+            if (!succeeded) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private long completed() {
+            return histogram.getTotalCount();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.account.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 한 계좌에 동시 요청을 몰아서 동기(/transaction/use) 와 비동기(/transaction/async/use) 를 비교
+ * lock 대기 중에 요청 스레드(http-nio) 가 얼마나 묶이는지, 그 동안 다른 API 응답이 얼마나 늦어지는지 본다.
+ * 실행 : ./gradlew loadTest
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "account.async.enabled=true",
+                "server.tomcat.threads.max=20",
+                "account.lock.queue.max-depth=1000"
+        })
+class TransactionLoadTest {
+    private static final int REQUESTS = 400;
+    private static final long AMOUNT = 10L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void compareSyncAndAsync() throws Exception {
+        String accountNumber = createAccount();
+
+        Result sync = run("/transaction/use", accountNumber);
+        Result async = run("/transaction/async/use", accountNumber);
+
+        System.out.println(sync.summary("sync "));
+        System.out.println(async.summary("async"));
+        assertEquals(REQUESTS, sync.completed);
+        assertEquals(REQUESTS, async.completed);
+    }
+
+    private Result run(String path, String accountNumber) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        AtomicInteger maxHttpThreads = new AtomicInteger();
+        List<Long> probeLatencies = new ArrayList<>();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        // 경합 중 요청 스레드 수와 다른 API(계좌 조회) 응답 시간을 주기적으로 잰다.
+        sampler.scheduleAtFixedRate(() -> {
+            maxHttpThreads.accumulateAndGet(countHttpThreads(), Math::max);
+            long startedAt = System.nanoTime();
+            try {
+                httpClient.send(get("/account?user_id=1"), HttpResponse.BodyHandlers.discarding());
+                synchronized (probeLatencies) {
+                    probeLatencies.add(System.nanoTime() - startedAt);
+                }
+            } catch (Exception ignored) {
+                // 측정용 요청이므로 실패는 무시
+            }
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        String body = "{\"userId\":1,\"accountNumber\":\"" + accountNumber
+                + "\",\"amount\":" + AMOUNT + "}";
+        long[] latencies = new long[REQUESTS];
+        List<CompletableFuture<HttpResponse<Void>>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int index = i;
+            long startedAt = System.nanoTime();
+            futures.add(httpClient.sendAsync(post(path, body), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) ->
+                            latencies[index] = System.nanoTime() - startedAt));
+        }
+
+        Result result = new Result();
+        for (CompletableFuture<HttpResponse<Void>> future : futures) {
+            try {
+                if (future.get(120, TimeUnit.SECONDS).statusCode() == 200) {
+                    result.succeeded++;
+                }
+                result.completed++;
+            } catch (Exception e) {
+                result.errors++;
+            }
+        }
+        sampler.shutdownNow();
+
+        result.latencies = latencies;
+        synchronized (probeLatencies) {
+            result.probeLatencies = probeLatencies.stream().mapToLong(Long::longValue).toArray();
+        }
+        result.peakThreads = threads.getPeakThreadCount();
+        result.maxHttpThreads = maxHttpThreads.get();
+        return result;
+    }
+
+    private String createAccount() throws Exception {
+        HttpResponse<String> response = httpClient.send(
+                post("/account", "{\"userId\":1,\"initialBalance\":100000000}"),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode json = objectMapper.readTree(response.body());
+        return json.get("accountNumber").asText();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private static int countHttpThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("http-nio"))
+                .count();
+    }
+
+    private static long percentileMillis(long[] values, double percentile) {
+        if (values.length == 0) {
+            return 0L;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(index, 0)]);
+    }
+
+    private static class Result {
+        private int completed;
+        private int succeeded;
+        private int errors;
+        private long[] latencies;
+        private long[] probeLatencies;
+        private int peakThreads;
+        private int maxHttpThreads;
+
+        private String summary(String name) {
+            return String.format(
+                    "[%s] completed=%d succeeded=%d errors=%d p50=%dms p99=%dms "
+                            + "peakThreads=%d httpThreads=%d probe p50=%dms p99=%dms",
+                    name, completed, succeeded, errors,
+                    percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.99),
+                    peakThreads, maxHttpThreads,
+                    percentileMillis(probeLatencies, 0.5), percentileMillis(probeLatencies, 0.99));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.account.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalLockProviderTest {
+    private final LocalLockProvider lockProvider = new LocalLockProvider();
+
+    @Test
+    void lockAndUnlock() throws InterruptedException {
+        //when
+        boolean isLock = lockProvider.tryLock("ACLK:1000000000", 0L, -1L, TimeUnit.MILLISECONDS);
+
+        //then
+        assertTrue(isLock);
+        assertDoesNotThrow(() -> lockProvider.unlock("ACLK:1000000000"));
+    }
+
+    @Test
+    void failLock_otherThreadHolding() throws Exception {
+        //given
+        lockProvider.tryLock("ACLK:1000000000", 0L, -1L, TimeUnit.MILLISECONDS);
+
+        //when
+        boolean isLock = CompletableFuture.supplyAsync(() -> {
+            try {
+                return lockProvider.tryLock("ACLK:1000000000", 50L, -1L, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }).get();
+
+        //then
+        assertFalse(isLock);
+        lockProvider.unlock("ACLK:1000000000");
+    }
+
+    @Test
+    void failUnlock_notHolding() {
+        assertThrows(IllegalMonitorStateException.class,
+                () -> lockProvider.unlock("ACLK:1000000000"));
+    }
+}
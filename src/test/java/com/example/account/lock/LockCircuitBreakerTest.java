@@ -0,0 +1,75 @@
+package com.example.account.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.example.account.lock.LockCircuitBreaker.State.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockCircuitBreakerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void openAfterConsecutiveFailures() {
+        //given
+        LockCircuitBreaker breaker = new LockCircuitBreaker(2, 10000L, meterRegistry);
+
+        //when
+        breaker.recordFailure();
+        assertEquals(CLOSED, breaker.getState());
+        breaker.recordFailure();
+
+        //then
+        assertEquals(OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1.0, meterRegistry.get("account.lock.breaker.state").gauge().value());
+    }
+
+    @Test
+    void halfOpenProbe_closeOnSuccess() {
+        //given
+        LockCircuitBreaker breaker = new LockCircuitBreaker(1, 0L, meterRegistry);
+        breaker.recordFailure();
+
+        //when
+        assertTrue(breaker.allowRequest());
+        // probe 중에는 다른 요청을 보내지 않는다.
+        assertFalse(breaker.allowRequest());
+        breaker.recordSuccess();
+
+        //then
+        assertEquals(CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void halfOpenProbe_releasedOnInterrupt() {
+        //given
+        LockCircuitBreaker breaker = new LockCircuitBreaker(1, 0L, meterRegistry);
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        //when
+        breaker.releaseProbe();
+
+        //then
+        assertEquals(HALF_OPEN, breaker.getState());
+        // 다음 요청이 다시 probe 한다.
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void halfOpenProbe_reopenOnFailure() {
+        //given
+        LockCircuitBreaker breaker = new LockCircuitBreaker(1, 0L, meterRegistry);
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        //when
+        breaker.recordFailure();
+
+        //then
+        assertEquals(OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.account.metrics;
+
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountMetrics accountMetrics = new AccountMetrics(meterRegistry);
+
+    @Test
+    void errorCountersRegisteredForEveryErrorCode() {
+        //given
+        //when
+        accountMetrics.error(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+
+        //then
+        assertEquals(ErrorCode.values().length,
+                meterRegistry.get("account.errors").counters().size());
+        assertEquals(1.0, meterRegistry.get("account.errors")
+                .tag("code", "ACCOUNT_TRANSACTION_LOCK").counter().count());
+        assertEquals(0.0, meterRegistry.get("account.errors")
+                .tag("code", "AMOUNT_EXCEED_BALANCE").counter().count());
+    }
+
+    @Test
+    void lockFailedRecordedByCause() {
+        //given
+        long startedAt = System.nanoTime();
+
+        //when
+        accountMetrics.lockFailed(startedAt, ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        accountMetrics.lockFailed(startedAt, ErrorCode.LOCK_SERVICE_UNAVAILABLE);
+        accountMetrics.lockHeld(startedAt);
+
+        //then
+        assertEquals(1L, meterRegistry.get("account.lock.acquire")
+                .tag("result", "timeout").timer().count());
+        assertEquals(1L, meterRegistry.get("account.lock.acquire")
+                .tag("result", "unavailable").timer().count());
+        assertEquals(0L, meterRegistry.get("account.lock.acquire")
+                .tag("result", "acquired").timer().count());
+        assertEquals(1L, meterRegistry.get("account.lock.held").timer().count());
+    }
+}
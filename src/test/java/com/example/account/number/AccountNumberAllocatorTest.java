@@ -0,0 +1,74 @@
+package com.example.account.number;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+    @Mock
+    private AccountNumberBlockSource blockSource;
+
+    @Test
+    void allocateFromBlock() {
+        //given
+        given(blockSource.reserveBlock(3))
+                .willReturn(1000000000L, 1000000003L);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(blockSource, 3);
+
+        //when
+        //then
+        assertEquals("1000000000", allocator.next());
+        assertEquals("1000000001", allocator.next());
+        assertEquals("1000000002", allocator.next());
+        assertEquals("1000000003", allocator.next());
+        verify(blockSource, times(2)).reserveBlock(3);
+    }
+
+    @Test
+    void failAllocate_outOf10Digits() {
+        //given
+        given(blockSource.reserveBlock(anyInt()))
+                .willReturn(10000000000L);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(blockSource, 10);
+
+        //when
+        //then
+        assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    @Test
+    void noDuplicate_concurrentAllocate() throws InterruptedException {
+        //given
+        AtomicLong sequence = new AtomicLong(1000000000L);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(
+                blockSize -> sequence.getAndAdd(blockSize), 100);
+        Set<String> accountNumbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> accountNumbers.add(allocator.next()));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        //then
+        assertEquals(10_000, accountNumbers.size());
+        accountNumbers.forEach(number -> assertEquals(10, number.length()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.account.number;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class SequenceAccountNumberBlockSourceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SequenceAccountNumberBlockSource blockSource;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(blockSource, "sequenceQuery",
+                "select next value for account_number_seq");
+    }
+
+    @Test
+    void blockStartFromSequence() {
+        //given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .willReturn(1L, 2L, 3L);
+
+        //when
+        //then
+        assertEquals(1000000000L, blockSource.reserveBlock(1000));
+        assertEquals(1000001000L, blockSource.reserveBlock(1000));
+        assertEquals(1000006000L, blockSource.reserveBlock(3000));
+    }
+
+    @Test
+    void failReserve_invalidSequence() {
+        //given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .willReturn(0L);
+
+        //when
+        //then
+        assertThrows(IllegalStateException.class, () -> blockSource.reserveBlock(1000));
+    }
+}
@@ -3,7 +3,9 @@ package com.example.account.service;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
+import com.example.account.engine.BalanceEngine;
 import com.example.account.exception.AccountException;
+import com.example.account.number.AccountNumberAllocator;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.type.AccountStatus;
@@ -35,6 +37,12 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Mock
+    private BalanceEngine balanceEngine;
+
     @InjectMocks  // 위의 가짜 생성 목 주입 accountRepository -> accountService
     private AccountService accountService;
 
@@ -50,15 +58,13 @@ class AccountServiceTest {
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                        .accountNumber("1000000012")
-                        .build()));
+        given(accountNumberAllocator.next())
+                .willReturn("1000000013");
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
                         .accountUser(user)
                         .accountNumber("1000000013").build());
-        // accountNumber가 1씩 증가하는지 확인
+        // 발급기에서 받은 accountNumber로 저장하는지 확인
         ArgumentCaptor<Account> captor = ArgumentCaptor.forClass(Account.class);
 
         //when
@@ -82,13 +88,13 @@ class AccountServiceTest {
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(user));
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.empty());  // OPTIONAL이 비었음
+        given(accountNumberAllocator.next())
+                .willReturn("1000000000");  // 첫 block 의 첫 번호
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
                         .accountUser(user)
-                        .accountNumber("1000000013").build());
-        // accountNumber가 1씩 증가하는지 확인
+                        .accountNumber("1000000000").build());
+        // 발급기에서 받은 accountNumber로 저장하는지 확인
         ArgumentCaptor<Account> captor = ArgumentCaptor.forClass(Account.class);
 
         //when
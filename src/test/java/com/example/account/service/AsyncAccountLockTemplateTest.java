@@ -0,0 +1,146 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.exception.AccountException;
+import com.example.account.metrics.AccountMetrics;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.LockStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncAccountLockTemplateTest {
+    @Mock
+    private AccountLockTemplate accountLockTemplate;
+
+    @Mock
+    private LockService lockService;
+
+    @Spy
+    private ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+
+    private ExecutorService executor;
+
+    private AsyncAccountLockTemplate asyncAccountLockTemplate;
+
+    private static final LockPolicy POLICY =
+            new LockPolicy(5000L, 15000L, LockStrategy.QUEUE, false);
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        asyncAccountLockTemplate = new AsyncAccountLockTemplate(
+                accountLockTemplate, lockService, concurrencyProperties, executor,
+                new AccountMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void lockAsync_runWork_unlockWithSameOwner() throws Exception {
+        //given
+        given(lockService.supportsAsync()).willReturn(true);
+        given(lockService.lockAsync(anyString(), any(), anyLong()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        given(lockService.unlockAsync(anyString(), anyLong()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        ArgumentCaptor<Long> lockOwner = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> unlockOwner = ArgumentCaptor.forClass(Long.class);
+
+        //when
+        String result = asyncAccountLockTemplate
+                .execute("1000000000", POLICY, () -> Thread.currentThread().getName())
+                .get(1, TimeUnit.SECONDS);
+
+        //then
+        verify(lockService).lockAsync(eq("1000000000"), eq(POLICY), lockOwner.capture());
+        verify(lockService, timeout(1000)).unlockAsync(eq("1000000000"), unlockOwner.capture());
+        assertEquals(lockOwner.getValue(), unlockOwner.getValue());
+        // thread id 와 겹치지 않는 음수 소유자
+        assertTrue(lockOwner.getValue() < 0);
+        // 작업은 executor 스레드에서 실행
+        assertNotEquals(Thread.currentThread().getName(), result);
+        verify(accountLockTemplate, never()).execute(anyString(), any(), any());
+    }
+
+    @Test
+    void lockFailed_doNotRunWork_doNotUnlock() {
+        //given
+        given(lockService.supportsAsync()).willReturn(true);
+        given(lockService.lockAsync(anyString(), any(), anyLong()))
+                .willReturn(CompletableFuture.failedFuture(
+                        new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK)));
+
+        //when
+        ExecutionException exception = assertThrows(ExecutionException.class, () ->
+                asyncAccountLockTemplate.execute("1000000000", POLICY, () -> {
+                    throw new IllegalStateException("must not run");
+                }).get(1, TimeUnit.SECONDS));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK,
+                ((AccountException) exception.getCause()).getErrorCode());
+        verify(lockService, never()).unlockAsync(anyString(), anyLong());
+    }
+
+    @Test
+    void executorRejected_unlock() {
+        //given
+        given(lockService.supportsAsync()).willReturn(true);
+        given(lockService.lockAsync(anyString(), any(), anyLong()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        given(lockService.unlockAsync(anyString(), anyLong()))
+                .willReturn(CompletableFuture.completedFuture(null));
+        executor.shutdown();
+
+        //when
+        ExecutionException exception = assertThrows(ExecutionException.class, () ->
+                asyncAccountLockTemplate.execute("1000000000", POLICY, () -> "unused")
+                        .get(1, TimeUnit.SECONDS));
+
+        //then
+        assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        verify(lockService).unlockAsync(eq("1000000000"), anyLong());
+    }
+
+    @Test
+    void asyncLockNotSupported_runBlockingTemplateOnExecutor() throws Throwable {
+        //given
+        given(lockService.supportsAsync()).willReturn(false);
+        given(accountLockTemplate.execute(anyString(), any(), any())).willReturn("result");
+
+        //when
+        Object result = asyncAccountLockTemplate
+                .execute("1000000000", POLICY, () -> "unused")
+                .get(1, TimeUnit.SECONDS);
+
+        //then
+        assertEquals("result", result);
+        verify(lockService, never()).lockAsync(anyString(), any(), anyLong());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicies;
+import com.example.account.aop.LockPolicy;
+import com.example.account.dto.BulkUseBalance;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.engine.BalanceEngine;
+import com.example.account.exception.AccountException;
+import com.example.account.failure.FailedTransactionQueue;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BulkTransactionServiceTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private AccountLockTemplate accountLockTemplate;
+
+    @Mock
+    private FailedTransactionQueue failedTransactionQueue;
+
+    @Mock
+    private BalanceEngine balanceEngine;
+
+    @InjectMocks
+    private BulkTransactionService bulkTransactionService;
+
+    private static List<BulkUseBalance.Result> successResults(String accountNumber,
+                                                              List<UseBalance.Request> items) {
+        return items.stream()
+                .map(item -> new BulkUseBalance.Result(TransactionDto.builder()
+                        .accountNumber(accountNumber)
+                        .amount(item.getAmount())
+                        .transactionResultType(S)
+                        .build(), null))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void groupByAccount_lockOncePerAccount_keepRequestOrder() throws Throwable {
+        //given
+        given(accountLockTemplate.execute(anyString(), any(), any()))
+                .willAnswer(invocation -> ((OptimisticRetryExecutor.Attempt)
+                        invocation.getArgument(2)).run());
+        given(transactionService.useBalanceGroup(anyString(), anyList()))
+                .willAnswer(invocation -> successResults(
+                        invocation.getArgument(0), invocation.getArgument(1)));
+
+        //when
+        List<BulkUseBalance.Result> results = bulkTransactionService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(1L, "2000000000", 200L),
+                new UseBalance.Request(1L, "1000000000", 300L)));
+
+        //then
+        verify(accountLockTemplate, times(1)).execute(eq("1000000000"), any(), any());
+        verify(accountLockTemplate, times(1)).execute(eq("2000000000"), any(), any());
+        assertEquals(3, results.size());
+        assertEquals(100L, results.get(0).getTransaction().getAmount());
+        assertEquals("2000000000", results.get(1).getTransaction().getAccountNumber());
+        assertEquals(300L, results.get(2).getTransaction().getAmount());
+    }
+
+    @Test
+    void lockWithUseBalancePolicy() throws Throwable {
+        //given
+        given(accountLockTemplate.execute(anyString(), any(), any()))
+                .willAnswer(invocation -> ((OptimisticRetryExecutor.Attempt)
+                        invocation.getArgument(2)).run());
+        given(transactionService.useBalanceGroup(anyString(), anyList()))
+                .willAnswer(invocation -> successResults(
+                        invocation.getArgument(0), invocation.getArgument(1)));
+        ArgumentCaptor<LockPolicy> captor = ArgumentCaptor.forClass(LockPolicy.class);
+
+        //when
+        bulkTransactionService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L)));
+
+        //then
+        verify(accountLockTemplate).execute(eq("1000000000"), captor.capture(), any());
+        assertSame(LockPolicies.USE, captor.getValue());
+    }
+
+    @Test
+    void lockFailed_enqueueFailedTransactions() throws Throwable {
+        //given
+        given(accountLockTemplate.execute(anyString(), any(), any()))
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+
+        //when
+        List<BulkUseBalance.Result> results = bulkTransactionService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L),
+                new UseBalance.Request(1L, "1000000000", 300L)));
+
+        //then
+        verify(failedTransactionQueue, times(1)).enqueue(USE, "1000000000", 100L);
+        verify(failedTransactionQueue, times(1)).enqueue(USE, "1000000000", 300L);
+        verify(transactionService, never()).useBalanceGroup(anyString(), anyList());
+        assertEquals(F, results.get(0).getTransaction().getTransactionResultType());
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, results.get(1).getErrorCode());
+    }
+
+    @Test
+    void accountNotFound_failWithoutTransaction() throws Throwable {
+        //given
+        given(accountLockTemplate.execute(anyString(), any(), any()))
+                .willThrow(new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        //when
+        List<BulkUseBalance.Result> results = bulkTransactionService.useBalances(List.of(
+                new UseBalance.Request(1L, "1000000000", 100L)));
+
+        //then
+        verify(failedTransactionQueue, never()).enqueue(any(), anyString(), anyLong());
+        assertEquals(F, results.get(0).getTransaction().getTransactionResultType());
+        assertNull(results.get(0).getTransaction().getTransactionId());
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, results.get(0).getErrorCode());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.account.service;
+
+import com.example.account.aop.LockPolicy;
+import com.example.account.exception.AccountException;
+import com.example.account.type.LockStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_LOCK_QUEUE_FULL;
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalLockServiceTest {
+    private static final LockPolicy QUEUE_POLICY =
+            new LockPolicy(100L, 15000L, LockStrategy.QUEUE, false);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void successGetLocalLock() {
+        //given
+        LocalLockService localLockService = new LocalLockService(2, meterRegistry);
+
+        //when
+        assertDoesNotThrow(() -> localLockService.lock("1000000000", QUEUE_POLICY));
+
+        //then
+        assertEquals(1, localLockService.getQueueDepth("1000000000"));
+        localLockService.unlock("1000000000");
+        assertEquals(0, localLockService.getQueueDepth("1000000000"));
+        assertEquals(0, localLockService.getTotalQueueDepth());
+        assertEquals(1, meterRegistry.get("account.lock.queue.wait").timer().count());
+    }
+
+    @Test
+    void failGetLocalLock_waitTimeout() throws Exception {
+        //given
+        LocalLockService localLockService = new LocalLockService(2, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdLock(localLockService, release);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> localLockService.lock("1000000000", QUEUE_POLICY));
+
+        //then
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertEquals(1, localLockService.getQueueDepth("1000000000"));
+        release.countDown();
+        holder.get();
+        assertEquals(0, localLockService.getTotalQueueDepth());
+    }
+
+    @Test
+    void failGetLocalLock_queueFull() throws Exception {
+        //given
+        LocalLockService localLockService = new LocalLockService(1, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdLock(localLockService, release);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> localLockService.lock("1000000000", QUEUE_POLICY));
+
+        //then
+        assertEquals(ACCOUNT_LOCK_QUEUE_FULL, exception.getErrorCode());
+        assertEquals(1.0, meterRegistry.get("account.lock.queue.rejected").counter().count());
+        release.countDown();
+        holder.get();
+    }
+
+    @Test
+    void failGetLocalLock_failFastDoesNotWait() throws Exception {
+        //given
+        LocalLockService localLockService = new LocalLockService(2, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdLock(localLockService, release);
+        LockPolicy failFast = new LockPolicy(0L, 15000L, LockStrategy.FAIL_FAST, false);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> localLockService.lock("1000000000", failFast));
+
+        //then
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        release.countDown();
+        holder.get();
+    }
+
+    @Test
+    void successGetLocalLock_spinThenPark() throws Exception {
+        //given
+        LocalLockService localLockService = new LocalLockService(2, meterRegistry);
+        LockPolicy spin = new LockPolicy(1000L, 15000L, LockStrategy.SPIN_THEN_PARK, false);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = holdLock(localLockService, release);
+
+        //when
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                .execute(release::countDown);
+        assertDoesNotThrow(() -> localLockService.lock("1000000000", spin));
+
+        //then
+        localLockService.unlock("1000000000");
+        holder.get();
+        assertEquals(0, localLockService.getTotalQueueDepth());
+    }
+
+    @Test
+    void unlockWithoutLock_doesNothing() {
+        LocalLockService localLockService = new LocalLockService(2, meterRegistry);
+
+        assertDoesNotThrow(() -> localLockService.unlock("1000000000"));
+        assertEquals(0, localLockService.getTotalQueueDepth());
+    }
+
+    private CompletableFuture<Void> holdLock(LocalLockService localLockService,
+                                             CountDownLatch release) throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            localLockService.lock("1000000000", QUEUE_POLICY);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                localLockService.unlock("1000000000");
+            }
+        });
+        locked.await();
+        return holder;
+    }
+}
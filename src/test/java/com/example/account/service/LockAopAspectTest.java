@@ -1,35 +1,92 @@
 package com.example.account.service;
 
+import com.example.account.aop.AccountLock;
+import com.example.account.aop.LockPolicy;
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.dto.Transfer;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.fault.FaultInjector;
+import com.example.account.metrics.AccountMetrics;
+import com.example.account.type.ConcurrencyMode;
 import com.example.account.type.ErrorCode;
+import com.example.account.type.LockStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.channels.AcceptPendingException;
+import java.util.List;
 
 import static com.example.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LockAopAspectTest {
+    @Mock
+    private LocalLockService localLockService;
+
     @Mock
     private LockService lockService;
 
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
-    @InjectMocks
+    @Mock
+    private MethodSignature methodSignature;
+
+    @Spy
+    private ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+
+    @Mock
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Mock
+    private FaultInjector faultInjector;
+
     private LockAopAspect lockAopAspect;
 
+    @BeforeEach
+    void setUp() {
+        // 실제 lock 처리는 AccountLockTemplate 이 하므로 mock 을 넣어 함께 검증
+        lockAopAspect = new LockAopAspect(new AccountLockTemplate(
+                localLockService, lockService, concurrencyProperties, optimisticRetryExecutor,
+                faultInjector, new AccountMetrics(new SimpleMeterRegistry())));
+    }
+
+    static class LockTarget {
+        @AccountLock
+        public void use(UseBalance.Request request) {
+        }
+
+        @AccountLock(tryLockTime = 0L, strategy = LockStrategy.FAIL_FAST)
+        public void failFast(UseBalance.Request request) {
+        }
+
+        @AccountLock
+        public void transfer(Transfer.Request request) {
+        }
+    }
+
+    private void givenLockTarget(String methodName) throws NoSuchMethodException {
+        given(proceedingJoinPoint.getSignature()).willReturn(methodSignature);
+        given(methodSignature.getMethod()).willReturn(
+                LockTarget.class.getMethod(methodName, UseBalance.Request.class));
+    }
+
     @Test
     void lockAndUnlock() throws Throwable {
         //given
@@ -40,13 +97,16 @@ class LockAopAspectTest {
 
         UseBalance.Request request =
                 new UseBalance.Request(123L, "1233", 1000L);
+        givenLockTarget("use");
 
         //when
         lockAopAspect.aroundMethod(proceedingJoinPoint, request);
 
         //then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), any(), anyLong());
         verify(lockService, times(1)).unlock(unlockArgumentCaptor.capture());
+        verify(localLockService, times(1)).lock(anyString(), any());
+        verify(localLockService, times(1)).unlock(anyString());
 
         assertEquals("1233", lockArgumentCaptor.getValue());
         assertEquals("1233", unlockArgumentCaptor.getValue());
@@ -63,6 +123,7 @@ class LockAopAspectTest {
 
         UseBalance.Request request =
                 new UseBalance.Request(123L, "222000", 1000L);
+        givenLockTarget("use");
         given(proceedingJoinPoint.proceed())
                 .willThrow(new AccountException(ACCOUNT_NOT_FOUND));
         //when
@@ -70,11 +131,108 @@ class LockAopAspectTest {
         lockAopAspect.aroundMethod(proceedingJoinPoint, request));
 
         //then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), any(), anyLong());
         verify(lockService, times(1)).unlock(unlockArgumentCaptor.capture());
+        verify(localLockService, times(1)).lock(anyString(), any());
+        verify(localLockService, times(1)).unlock(anyString());
 
         assertEquals("222000", lockArgumentCaptor.getValue());
         assertEquals("222000", unlockArgumentCaptor.getValue());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void localLockReleased_evenIfRedisLockFailed() throws Throwable {
+        //given
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1000000000", 1000L);
+        givenLockTarget("use");
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock(anyString(), any(), anyLong());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class, () ->
+                lockAopAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(localLockService, times(1)).lock(eq("1000000000"), any());
+        verify(localLockService, times(1)).unlock("1000000000");
+        verify(lockService, never()).unlock(anyString());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+
+    @Test
+    void lockPolicyResolvedFromAnnotation_andCached() throws Throwable {
+        //given
+        ArgumentCaptor<LockPolicy> policyCaptor =
+                ArgumentCaptor.forClass(LockPolicy.class);
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1000000000", 1000L);
+        givenLockTarget("failFast");
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(localLockService, times(2)).lock(anyString(), policyCaptor.capture());
+        assertSame(policyCaptor.getAllValues().get(0), policyCaptor.getAllValues().get(1));
+        assertEquals(LockStrategy.FAIL_FAST, policyCaptor.getValue().getStrategy());
+        assertEquals(0L, policyCaptor.getValue().getWaitTime());
+        verify(lockService, times(2)).lock(eq("1000000000"), any(), eq(0L));
+    }
+
+    @Test
+    void skipLock_pessimisticMode() throws Throwable {
+        //given
+        concurrencyProperties.setMode(ConcurrencyMode.PESSIMISTIC);
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1000000000", 1000L);
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(localLockService, never()).lock(anyString(), any());
+        verify(lockService, never()).lock(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void retryWithoutLock_optimisticMode() throws Throwable {
+        //given
+        concurrencyProperties.setMode(ConcurrencyMode.OPTIMISTIC);
+        UseBalance.Request request =
+                new UseBalance.Request(123L, "1000000000", 1000L);
+        given(optimisticRetryExecutor.execute(any())).willReturn("result");
+
+        //when
+        Object result = lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        assertEquals("result", result);
+        verify(localLockService, never()).lock(anyString(), any());
+        verify(lockService, never()).lock(anyString(), any(), anyLong());
+    }
+
+    @Test
+    void lockAllAndUnlockAll_multiAccount() throws Throwable {
+        //given
+        Transfer.Request request =
+                new Transfer.Request(123L, "2000000000", "1000000000", 1000L);
+        given(proceedingJoinPoint.getSignature()).willReturn(methodSignature);
+        given(methodSignature.getMethod()).willReturn(
+                LockTarget.class.getMethod("transfer", Transfer.Request.class));
+
+        //when
+        lockAopAspect.aroundMultiAccountMethod(proceedingJoinPoint, request);
+
+        //then
+        List<String> accountNumbers = List.of("2000000000", "1000000000");
+        verify(localLockService, times(1)).lockAll(eq(accountNumbers), any());
+        verify(lockService, times(1)).lockAll(eq(accountNumbers), any(), anyLong());
+        verify(lockService, times(1)).unlockAll(accountNumbers);
+        verify(localLockService, times(1)).unlockAll(accountNumbers);
+    }
+}
@@ -1,56 +1,215 @@
 package com.example.account.service;
 
+import com.example.account.aop.LockPolicy;
 import com.example.account.exception.AccountException;
-import com.example.account.type.ErrorCode;
+import com.example.account.lock.LockCircuitBreaker;
+import com.example.account.lock.LockProvider;
+import com.example.account.metrics.AccountMetrics;
+import com.example.account.type.LockFallback;
+import com.example.account.type.LockStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.example.account.type.ErrorCode.LOCK_SERVICE_UNAVAILABLE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
     @Mock
-    private RedissonClient redissonClient;
+    private LockProvider lockProvider;
 
     @Mock
-    private RLock rLock;
+    private LockCircuitBreaker lockCircuitBreaker;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AccountMetrics accountMetrics = new AccountMetrics(meterRegistry);
 
     @InjectMocks
     private LockService lockService;
 
+    private static final LockPolicy POLICY =
+            new LockPolicy(1000L, 15000L, LockStrategy.QUEUE, false);
+
     @Test
     void successGetLock() throws InterruptedException {
         //given
-        given(redissonClient.getLock(anyString()))
-                .willReturn(rLock);
-        given(rLock.tryLock(anyLong(), anyLong(), any()))
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
                 .willReturn(true);
         //when
-        assertDoesNotThrow(() -> lockService.lock("123"));
+        assertDoesNotThrow(() -> lockService.lock("123", POLICY, 1000L));
         //then
+        verify(lockProvider).tryLock(eq("ACLK:123"), eq(1000L), eq(15000L), any());
+        verify(lockCircuitBreaker).recordSuccess();
     }
 
     @Test
     void failGetLock() throws InterruptedException {
         //given
-        given(redissonClient.getLock(anyString()))
-                .willReturn(rLock);
-        given(rLock.tryLock(anyLong(), anyLong(), any()))
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
                 .willReturn(false);
         //when
         AccountException exception = assertThrows(AccountException.class,
-                () -> lockService.lock("123"));
+                () -> lockService.lock("123", POLICY, 1000L));
 
         //then
         assertEquals(ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void lockWaitRecordedByResult() throws InterruptedException {
+        //given
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willReturn(true, false);
+
+        //when
+        lockService.lock("123", POLICY, 1000L);
+        assertThrows(AccountException.class, () -> lockService.lock("456", POLICY, 1000L));
+
+        //then
+        assertEquals(1L, meterRegistry.get("account.lock.acquire")
+                .tag("result", "acquired").timer().count());
+        assertEquals(1L, meterRegistry.get("account.lock.acquire")
+                .tag("result", "timeout").timer().count());
+    }
+
+    @Test
+    void successGetLock_withWatchdog() throws InterruptedException {
+        //given
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willReturn(true);
+        LockPolicy watchdogPolicy =
+                new LockPolicy(1000L, 15000L, LockStrategy.QUEUE, true);
+        //when
+        assertDoesNotThrow(() -> lockService.lock("123", watchdogPolicy, 1000L));
+        //then
+        verify(lockProvider).tryLock(eq("ACLK:123"), eq(1000L), eq(-1L), any());
+    }
+
+    @Test
+    void unlock() throws InterruptedException {
+        //given
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willReturn(true);
+        lockService.lock("123", POLICY, 1000L);
+        //when
+        lockService.unlock("123");
+        //then
+        verify(lockProvider).unlock("ACLK:123");
+    }
+
+    @Test
+    @DisplayName("Redis 오류 - local lock 으로 대체")
+    void providerFailed_fallbackToLocal() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(lockService, "fallback", LockFallback.LOCAL);
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willThrow(new IllegalStateException("redis down"));
+        //when
+        assertDoesNotThrow(() -> lockService.lock("123", POLICY, 1000L));
+        lockService.unlock("123");
+        //then
+        verify(lockCircuitBreaker).recordFailure();
+        verify(lockProvider, never()).unlock(anyString());
+    }
+
+    @Test
+    @DisplayName("Redis 오류 - 기본 설정은 거절")
+    void providerFailed_rejectByDefault() throws InterruptedException {
+        //given
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willThrow(new IllegalStateException("redis down"));
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("123", POLICY, 1000L));
+        //then
+        assertEquals(LOCK_SERVICE_UNAVAILABLE, exception.getErrorCode());
+        verify(lockCircuitBreaker).recordFailure();
+    }
+
+    @Test
+    @DisplayName("HALF_OPEN probe 중 interrupt - 다음 요청이 다시 probe")
+    void probeInterrupted_nextRequestProbes() throws InterruptedException {
+        //given
+        LockCircuitBreaker breaker = new LockCircuitBreaker(1, 0L, meterRegistry);
+        breaker.recordFailure();
+        ReflectionTestUtils.setField(lockService, "lockCircuitBreaker", breaker);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willThrow(new InterruptedException())
+                .willReturn(true);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("123", POLICY, 1000L));
+        assertTrue(Thread.interrupted());
+        lockService.lock("123", POLICY, 1000L);
+
+        //then
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertEquals(LockCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("circuit open + reject 설정 - 바로 거절")
+    void circuitOpen_reject() throws InterruptedException {
+        //given
+        ReflectionTestUtils.setField(lockService, "fallback", LockFallback.REJECT);
+        given(lockCircuitBreaker.allowRequest()).willReturn(false);
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> lockService.lock("123", POLICY, 1000L));
+        //then
+        assertEquals(LOCK_SERVICE_UNAVAILABLE, exception.getErrorCode());
+        verify(lockProvider, never()).tryLock(anyString(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("unlock 실패가 거래 결과로 전파되지 않음")
+    void unlockFailed_doesNotThrow() throws InterruptedException {
+        //given
+        given(lockCircuitBreaker.allowRequest()).willReturn(true);
+        given(lockProvider.tryLock(anyString(), anyLong(), anyLong(), any()))
+                .willReturn(true);
+        willThrow(new IllegalMonitorStateException())
+                .given(lockProvider).unlock(anyString());
+        lockService.lock("123", POLICY, 1000L);
+        //when
+        assertDoesNotThrow(() -> lockService.unlock("123"));
+        //then
+        verify(lockCircuitBreaker).recordFailure();
+    }
+
+    @Test
+    @DisplayName("async 를 지원하지 않는 provider - lock 시도 없이 실패")
+    void asyncNotSupported() {
+        //given
+        //when
+        //then
+        assertFalse(lockService.supportsAsync());
+        assertThrows(IllegalStateException.class,
+                () -> lockService.lockAsync("123", POLICY, 1L));
+        verify(lockCircuitBreaker, never()).allowRequest();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.account.service;
+
+import com.example.account.config.ConcurrencyProperties;
+import com.example.account.exception.AccountException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.account.type.ErrorCode.ACCOUNT_TRANSACTION_CONFLICT;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryExecutorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyProperties properties = new ConcurrencyProperties();
+        properties.getOptimistic().setMaxAttempts(3);
+        properties.getOptimistic().setBackoffMillis(1L);
+        properties.getOptimistic().setMaxBackoffMillis(2L);
+        optimisticRetryExecutor = new OptimisticRetryExecutor(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("version 충돌 후 재시도 성공")
+    void successAfterConflict() throws Throwable {
+        //given
+        AtomicInteger tries = new AtomicInteger();
+
+        //when
+        Object result = optimisticRetryExecutor.execute(() -> {
+            if (tries.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", 1L);
+            }
+            return "ok";
+        });
+
+        //then
+        assertEquals("ok", result);
+        assertEquals(3, tries.get());
+        assertEquals(2.0, meterRegistry.get("account.optimistic.conflicts").counter().count());
+        assertEquals(2.0, meterRegistry.get("account.optimistic.retries").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("재시도 횟수 초과 - 거래 실패")
+    void failRetryExhausted() {
+        //given
+        AtomicInteger tries = new AtomicInteger();
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> optimisticRetryExecutor.execute(() -> {
+                    tries.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException("Account", 1L);
+                }));
+
+        //then
+        assertEquals(ACCOUNT_TRANSACTION_CONFLICT, exception.getErrorCode());
+        assertEquals(3, tries.get());
+        assertEquals(1.0, meterRegistry.get("account.optimistic.exhausted").counter().count());
+    }
+
+    @Test
+    @DisplayName("다른 예외는 재시도하지 않음")
+    void doNotRetryOtherException() {
+        //given
+        AtomicInteger tries = new AtomicInteger();
+
+        //when
+        assertThrows(IllegalStateException.class,
+                () -> optimisticRetryExecutor.execute(() -> {
+                    tries.incrementAndGet();
+                    throw new IllegalStateException();
+                }));
+
+        //then
+        assertEquals(1, tries.get());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static com.example.account.repository.TransactionRepository.EXPORT_FETCH_SIZE;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportService transactionExportService;
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 9, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        transactionExportService = new TransactionExportService(transactionRepository,
+                entityManager, new ObjectMapper().findAndRegisterModules(), transactionManager);
+    }
+
+    private static Transaction transaction(long id) {
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountNumber("1000000000")
+                .build();
+        return Transaction.builder()
+                .account(account)
+                .transactionType(USE)
+                .transactionResultType(S)
+                .transactionId("transactionId" + id)
+                .transactedAt(FROM.plusSeconds(id))
+                .amount(1000L)
+                .balanceSnapShot(9000L)
+                .build();
+    }
+
+    @Test
+    void exportCsv() {
+        //given
+        given(transactionRepository.streamByTransactedAt(FROM, TO))
+                .willReturn(LongStream.range(0, 2).mapToObj(
+                        TransactionExportServiceTest::transaction));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //when
+        long count = transactionExportService.export(FROM, TO, ExportFormat.CSV, outputStream);
+
+        //then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2L, count);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("transactionId,accountNumber"));
+        assertEquals("transactionId1,1000000000,USE,S,1000,9000,2026-09-01T00:00:01", lines[2]);
+    }
+
+    @Test
+    void exportNdjson_clearPersistenceContextPeriodically_andCloseStream() {
+        //given
+        AtomicBoolean closed = new AtomicBoolean();
+        long total = EXPORT_FETCH_SIZE * 2L + 1;
+        given(transactionRepository.streamByTransactedAt(FROM, TO))
+                .willReturn(LongStream.range(0, total)
+                        .mapToObj(TransactionExportServiceTest::transaction)
+                        .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //when
+        long count = transactionExportService.export(FROM, TO, ExportFormat.NDJSON, outputStream);
+
+        //then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(total, count);
+        assertEquals(total, lines.length);
+        assertTrue(lines[0].contains("\"transactionId\":\"transactionId0\""));
+        verify(entityManager, times(2)).clear();
+        verify(transactionManager, times(1)).commit(any());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void invalidRange() {
+        //given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //when
+        AccountException exception = assertThrows(AccountException.class, () ->
+                transactionExportService.export(TO, FROM, ExportFormat.CSV, outputStream));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+        verify(transactionRepository, never()).streamByTransactedAt(any(), any());
+    }
+}
@@ -1,34 +1,55 @@
 package com.example.account.service;
 
+import com.example.account.cache.TransactionCache;
+import com.example.account.config.ConcurrencyProperties;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
+import com.example.account.dto.BulkUseBalance;
+import com.example.account.dto.FailedTransaction;
 import com.example.account.dto.TransactionDto;
+import com.example.account.dto.TransactionHistory;
+import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.fault.FaultInjector;
+import com.example.account.id.TimeOrderedTransactionIdGenerator;
+import com.example.account.id.TransactionIdGenerator;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
 import com.example.account.type.AccountStatus;
+import com.example.account.type.ConcurrencyMode;
 import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static com.example.account.type.TransactionResultType.F;
 import static com.example.account.type.TransactionResultType.S;
 import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.TRANSFER_IN;
+import static com.example.account.type.TransactionType.TRANSFER_OUT;
 import static com.example.account.type.TransactionType.USE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -41,6 +62,18 @@ class TransactionServiceTest {
     private AccountUserRepository accountUserRepository;
     @Mock
     private TransactionRepository transactionRepository;
+    @Spy
+    private ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+    // Redis 없이 서버 내부 캐시만 사용
+    @Spy
+    private TransactionCache transactionCache = new TransactionCache(
+            null, new ObjectMapper(), new SimpleMeterRegistry(), 1000L, false, 0L);
+
+    @Mock
+    private FaultInjector faultInjector;
+
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator = new TimeOrderedTransactionIdGenerator(0);
 
     @InjectMocks
     private TransactionService transactionService;
@@ -92,6 +125,39 @@ class TransactionServiceTest {
         assertEquals(1000L, transactionDto.getAmount());
     }
 
+    @Test
+    @DisplayName("PESSIMISTIC 모드 - 계좌를 FOR UPDATE 로 조회")
+    void successUseBalance_pessimistic() {
+        //given
+        concurrencyProperties.setMode(ConcurrencyMode.PESSIMISTIC);
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountRepository.findByAccountNumberForUpdate(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any())).willAnswer(
+                invocation -> invocation.getArgument(0));
+
+        //when
+        TransactionDto transactionDto = transactionService.useBalance(1L,
+                "1000000012", 800L);
+
+        //then
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        assertEquals(9200L, transactionDto.getBalanceSnapShot());
+        assertEquals(9200L, account.getBalance());
+    }
+
     @Test
     @DisplayName("해당 유저 없음 - 잔액 사용 실패")
     void useBalance_UserNotFound() {
@@ -220,48 +286,6 @@ class TransactionServiceTest {
     }
 
 
-    @Test
-    @DisplayName("실패 트랜젝션 저장 성공")
-    void saveFailedUseTransaction() {
-        //given
-        AccountUser user = AccountUser.builder()
-                .name("Pororo")
-                .build();
-        user.setId(12L);
-        Account account = Account.builder()
-                .accountUser(user)
-                .accountStatus(AccountStatus.IN_USE)
-                .balance(10000L)
-                .accountNumber("1000000012")
-                .build();
-        given(accountRepository.findByAccountNumber(anyString()))
-                .willReturn(Optional.of(account));
-        given(transactionRepository.save(any())).willReturn(
-                Transaction.builder()
-                        .account(account)
-                        .transactionType(USE)
-                        .transactionResultType(S)
-                        .transactionId("transactionId")
-                        .transactedAt(LocalDateTime.now())
-                        .amount(1000L)
-                        .balanceSnapShot(9000L)
-                        .build());
-
-        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
-
-
-        //when
-        transactionService.saveFailedUseTransaction("1000000000", 800L);
-
-        //then
-        verify(transactionRepository, times(1)).save(
-                captor.capture());
-        assertEquals(800L, captor.getValue().getAmount());
-        assertEquals(10000L, captor.getValue().getBalanceSnapShot());
-        assertEquals(F, captor.getValue().getTransactionResultType());
-    }
-
-
     // 거래 취소
     @Test
     void successCancelBalance() {
@@ -522,6 +546,71 @@ class TransactionServiceTest {
 
     }
 
+    @Test
+    void queryTransaction_servedFromCache() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(transactionRepository.findByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .account(account)
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .transactionId("transactionId")
+                        .transactedAt(LocalDateTime.now())
+                        .amount(1000L)
+                        .build()));
+
+        //when
+        transactionService.queryTransaction("transactionId");
+        TransactionDto transactionDto = transactionService.queryTransaction("transactionId");
+
+        //then
+        verify(transactionRepository, times(1)).findByTransactionId("transactionId");
+        assertEquals("transactionId", transactionDto.getTransactionId());
+    }
+
+    @Test
+    void queryTransaction_filledOnWrite() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        transactionService.useBalance(12L, "1000000012", 800L);
+        verify(transactionRepository).save(captor.capture());
+
+        //when
+        TransactionDto transactionDto = transactionService.queryTransaction(
+                captor.getValue().getTransactionId());
+
+        //then
+        verify(transactionRepository, never()).findByTransactionId(anyString());
+        assertEquals(S, transactionDto.getTransactionResultType());
+        assertEquals(800L, transactionDto.getAmount());
+    }
+
     @Test
     @DisplayName("원거래 없음 - 거래 조회 실패")
     void queryTransaction_TransactionNotFound() {
@@ -537,4 +626,254 @@ class TransactionServiceTest {
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
     }
 
-}
\ No newline at end of file
+    @Test
+    void successTransfer() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        AccountUser other = AccountUser.builder()
+                .name("Lupi")
+                .build();
+        other.setId(13L);
+        Account fromAccount = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        Account toAccount = Account.builder()
+                .accountUser(other)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(500L)
+                .accountNumber("1000000013")
+                .build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(fromAccount));
+        given(accountRepository.findByAccountNumber("1000000013"))
+                .willReturn(Optional.of(toAccount));
+        given(transactionRepository.save(any())).willAnswer(
+                invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        TransactionDto transactionDto = transactionService.transfer(12L,
+                "1000000012", "1000000013", 3000L);
+
+        //then
+        verify(transactionRepository, times(2)).save(captor.capture());
+        assertEquals(TRANSFER_OUT, captor.getAllValues().get(0).getTransactionType());
+        assertEquals(7000L, captor.getAllValues().get(0).getBalanceSnapShot());
+        assertEquals(TRANSFER_IN, captor.getAllValues().get(1).getTransactionType());
+        assertEquals(3500L, captor.getAllValues().get(1).getBalanceSnapShot());
+
+        assertEquals("1000000012", transactionDto.getAccountNumber());
+        assertEquals(TRANSFER_OUT, transactionDto.getTransactionType());
+        assertEquals(S, transactionDto.getTransactionResultType());
+    }
+
+    @Test
+    @DisplayName("같은 계좌로 이체 - 이체 실패")
+    void transfer_sameAccount() {
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.transfer(12L,
+                        "1000000012", "1000000012", 3000L));
+
+        //then
+        assertEquals(ErrorCode.TRANSFER_SAME_ACCOUNT, exception.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("잔액 부족 - 이체 실패")
+    void transfer_exceedAmount() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        Account fromAccount = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(100L)
+                .accountNumber("1000000012")
+                .build();
+        Account toAccount = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(500L)
+                .accountNumber("1000000013")
+                .build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(fromAccount));
+        given(accountRepository.findByAccountNumber("1000000013"))
+                .willReturn(Optional.of(toAccount));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.transfer(12L,
+                        "1000000012", "1000000013", 3000L));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        assertEquals(500L, toAccount.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void useBalanceGroup_partialFailure() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(transactionRepository.saveAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        List<BulkUseBalance.Result> results = transactionService.useBalanceGroup(
+                "1000000012", List.of(
+                        new UseBalance.Request(12L, "1000000012", 3000L),
+                        new UseBalance.Request(12L, "1000000012", 9000L),
+                        new UseBalance.Request(12L, "1000000012", 7000L)));
+
+        //then
+        // 사용자는 한 번만 조회하고, 거래 내역은 한 번에 저장
+        verify(accountUserRepository, times(1)).findById(12L);
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        verify(transactionRepository, never()).save(any());
+        assertEquals(3, results.size());
+        assertEquals(S, results.get(0).getTransaction().getTransactionResultType());
+        assertEquals(F, results.get(1).getTransaction().getTransactionResultType());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, results.get(1).getErrorCode());
+        assertEquals(S, results.get(2).getTransaction().getTransactionResultType());
+        assertEquals(0L, account.getBalance());
+    }
+
+    @Test
+    void saveFailedTransactions_inBatch() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+        LocalDateTime failedAt = LocalDateTime.now().minusSeconds(5);
+
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account));
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        transactionService.saveFailedTransactions(List.of(
+                new FailedTransaction(USE, "1000000012", 1000L, failedAt),
+                new FailedTransaction(CANCEL, "1000000012", 2000L, failedAt),
+                new FailedTransaction(USE, "9999999999", 3000L, failedAt)));
+
+        //then
+        // 계좌는 한 번에 조회하고, 없는 계좌의 거래는 버린다.
+        verify(accountRepository, times(1)).findByAccountNumberIn(anyCollection());
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(F, captor.getValue().get(0).getTransactionResultType());
+        assertEquals(CANCEL, captor.getValue().get(1).getTransactionType());
+        assertEquals(2000L, captor.getValue().get(1).getAmount());
+        assertEquals(failedAt, captor.getValue().get(1).getTransactedAt());
+    }
+
+    @Test
+    void getTransactionHistory_keysetPagination() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        user.setId(12L);
+        Account account = Account.builder()
+                .accountUser(user)
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(10000L)
+                .accountNumber("1000000012")
+                .build();
+        account.setId(7L);
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Transaction transaction = Transaction.builder()
+                    .account(account)
+                    .transactionType(USE)
+                    .transactionResultType(S)
+                    .transactionId("transactionId" + i)
+                    .transactedAt(now.minusMinutes(i))
+                    .amount(1000L)
+                    .build();
+            transaction.setId(100L - i);
+            rows.add(transaction);
+        }
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.findHistory(anyLong(), any()))
+                .willReturn(rows);
+        given(transactionRepository.findHistoryBefore(anyLong(), any(), anyLong(), any()))
+                .willReturn(List.of());
+
+        //when
+        TransactionHistory first = transactionService.getTransactionHistory("1000000012", null, 2);
+        TransactionHistory second = transactionService.getTransactionHistory(
+                "1000000012", first.getNextCursor(), 2);
+
+        //then
+        // 한 건 더 읽어서 다음 페이지 여부를 판단
+        verify(transactionRepository).findHistory(7L, PageRequest.of(0, 3));
+        assertEquals(2, first.getTransactions().size());
+        assertEquals("transactionId1", first.getTransactions().get(1).getTransactionId());
+        // 두 번째 페이지는 첫 페이지 마지막 거래 위치부터 이어서 조회
+        verify(transactionRepository).findHistoryBefore(
+                7L, now.minusMinutes(1), 99L, PageRequest.of(0, 3));
+        assertTrue(second.getTransactions().isEmpty());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getTransactionHistory_invalidCursor() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .name("Pororo")
+                .build();
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(user)
+                        .accountNumber("1000000012")
+                        .build()));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory("1000000012", "not-a-cursor", 20));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+}